@@ -0,0 +1,38 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.ParcelTrackingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+
+/**
+ * Starts the application for benchmarking.
+ * Every context gets its own in-memory H2 database and quiet logging so SQL echo
+ * does not dominate the measurements.
+ */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * Starts a non-web application context backed by a fresh in-memory database.
+     * @param extraProperties additional {@code key=value} properties, overriding the defaults
+     * @return the running application context
+     */
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return new SpringApplicationBuilder(ParcelTrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.hotel.parceltracking=WARN",
+                        "logging.level.org.springframework.web=WARN")
+                .properties(extraProperties)
+                .run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.ParcelService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds a benchmark database through the application services.
+ * Guests are checked in to rooms {@code S0..S<n-1>}, and each guest receives
+ * {@code parcelsPerGuest} uncollected parcels with tracking numbers {@code SEED-<guest>-<parcel>}.
+ * Benchmarks take the sizes as JMH {@code @Param}s, so they can be changed per run with {@code -p}.
+ */
+final class BenchmarkDataset {
+
+    // Matches the batch intake endpoint's request size limit
+    private static final int INTAKE_BATCH_SIZE = 1000;
+
+    private final List<Long> guestIds;
+
+    private BenchmarkDataset(List<Long> guestIds) {
+        this.guestIds = guestIds;
+    }
+
+    /**
+     * Checks in the guests and accepts their parcels.
+     * @param context the running application context
+     * @param guestCount number of checked-in guests
+     * @param parcelsPerGuest number of uncollected parcels per guest
+     * @return the seeded dataset
+     */
+    static BenchmarkDataset seed(ConfigurableApplicationContext context, int guestCount, int parcelsPerGuest) {
+        GuestService guestService = context.getBean(GuestService.class);
+        ParcelService parcelService = context.getBean(ParcelService.class);
+
+        List<Long> guestIds = new ArrayList<>(guestCount);
+        for (int i = 0; i < guestCount; i++) {
+            guestIds.add(guestService.checkInGuest(new GuestDto("Guest " + i, "S" + i)).getId());
+        }
+
+        List<ParcelDto> batch = new ArrayList<>(INTAKE_BATCH_SIZE);
+        for (int i = 0; i < guestCount; i++) {
+            for (int j = 0; j < parcelsPerGuest; j++) {
+                batch.add(new ParcelDto("SEED-" + i + "-" + j, "Courier " + (j % 10), "Seeded parcel", guestIds.get(i)));
+                if (batch.size() == INTAKE_BATCH_SIZE) {
+                    parcelService.acceptParcels(batch);
+                    batch = new ArrayList<>(INTAKE_BATCH_SIZE);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            parcelService.acceptParcels(batch);
+        }
+        return new BenchmarkDataset(guestIds);
+    }
+
+    /**
+     * Gets the ID of the n-th seeded guest, wrapping around.
+     * @param n any non-negative number
+     * @return a seeded guest ID
+     */
+    Long guestId(long n) {
+        return guestIds.get((int) (n % guestIds.size()));
+    }
+
+    /**
+     * Gets the number of seeded guests.
+     * @return guest count
+     */
+    int guestCount() {
+        return guestIds.size();
+    }
+}
@@ -0,0 +1,103 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.config.RetryConfig;
+import com.hotel.parceltracking.dto.ParcelBatchItemResultDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.exception.BusinessLogicException;
+import com.hotel.parceltracking.service.ParcelService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention comparison for {@link ParcelService#collectParcel} under optimistic locking.
+ * For each level, {@code parcels} fresh parcels are each scanned by {@code desks} desks at
+ * once on a pool of {@code threads} threads: one scan per parcel collects it, the others
+ * conflict, are retried and report the parcel as already collected.
+ * Prints scan and collection throughput, retried conflicts and exhausted retries per level,
+ * showing how throughput degrades as conflicts increase.
+ * <p>
+ * Run with: {@code mvn -f benchmarks/pom.xml compile exec:java
+ * -Dexec.mainClass=com.hotel.parceltracking.benchmark.CollectionContentionComparison
+ * [-Dexec.args="parcels threads"]} (defaults: 2000 16).
+ * Not a JMH benchmark: each level is a fixed workload whose parcels can only be collected once.
+ */
+public final class CollectionContentionComparison {
+
+    private static final int[] DESKS_PER_PARCEL = {1, 2, 4, 8, 16};
+
+    // Matches the batch intake endpoint's request size limit
+    private static final int INTAKE_BATCH_SIZE = 1000;
+
+    private CollectionContentionComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        try (ConfigurableApplicationContext context = BenchmarkContexts.start()) {
+            ParcelService parcelService = context.getBean(ParcelService.class);
+            Counter conflicts = context.getBean(MeterRegistry.class).get(RetryConfig.WRITE_CONFLICTS).counter();
+            BenchmarkDataset dataset = BenchmarkDataset.seed(context, 100, 0);
+
+            System.out.printf("%n%d parcels per level, %d threads%n", parcels, threads);
+            System.out.printf("%-8s %10s %14s %12s %18s %10s%n",
+                    "desks", "scans/s", "collections/s", "conflicts", "conflicts/parcel", "exhausted");
+            for (int desks : DESKS_PER_PARCEL) {
+                List<Long> parcelIds = acceptParcels(parcelService, dataset, "CONTENTION-" + desks + "-", parcels);
+                double conflictsBefore = conflicts.count();
+                LongAdder exhausted = new LongAdder();
+
+                long start = System.nanoTime();
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                // The scans of one parcel are queued back to back, so they run at the same time
+                for (Long parcelId : parcelIds) {
+                    for (int desk = 0; desk < desks; desk++) {
+                        pool.execute(() -> {
+                            try {
+                                parcelService.collectParcel(parcelId);
+                            } catch (BusinessLogicException e) {
+                                // Lost the race: already collected by another desk
+                            } catch (OptimisticLockingFailureException e) {
+                                exhausted.increment();
+                            }
+                        });
+                    }
+                }
+                pool.shutdown();
+                pool.awaitTermination(1, TimeUnit.HOURS);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                double levelConflicts = conflicts.count() - conflictsBefore;
+                System.out.printf("%-8d %10.0f %14.0f %12.0f %18.2f %10d%n", desks,
+                        parcels * desks / seconds, parcels / seconds, levelConflicts,
+                        levelConflicts / parcels, exhausted.sum());
+            }
+        }
+    }
+
+    private static List<Long> acceptParcels(ParcelService parcelService, BenchmarkDataset dataset,
+                                            String trackingPrefix, int count) {
+        List<Long> parcelIds = new ArrayList<>(count);
+        List<ParcelDto> batch = new ArrayList<>(INTAKE_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(new ParcelDto(trackingPrefix + i, "Courier", "Contended parcel", dataset.guestId(i)));
+            if (batch.size() == INTAKE_BATCH_SIZE || i == count - 1) {
+                parcelService.acceptParcels(batch).getResults().stream()
+                        .map(ParcelBatchItemResultDto::getParcel)
+                        .forEach(parcel -> parcelIds.add(parcel.getId()));
+                batch = new ArrayList<>(INTAKE_BATCH_SIZE);
+            }
+        }
+        return parcelIds;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.ParcelService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of the list responses, using the application's
+ * configured {@link ObjectMapper} and DTO lists read back from a seeded database.
+ * {@code rows} is the number of parcels (and guests) in each serialized list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DtoSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    @Param({"3"})
+    public int parcelsPerGuest;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private List<ParcelDto> parcels;
+    private List<GuestDto> guests;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContexts.start();
+        objectMapper = context.getBean(ObjectMapper.class);
+        BenchmarkDataset.seed(context, rows, parcelsPerGuest);
+
+        parcels = context.getBean(ParcelService.class).getParcels(null, rows).getItems();
+        guests = context.getBean(GuestService.class).getGuests(null, rows).getItems();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializeParcels() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(parcels);
+    }
+
+    @Benchmark
+    public byte[] serializeGuestsWithParcels() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(guests);
+    }
+}
@@ -0,0 +1,118 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.dto.GuestSearchResultDto;
+import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.service.GuestNameIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares guest name search with {@code findByNameContainingIgnoreCase} (a
+ * {@code LOWER(name) LIKE '%...%'} scan of the guests table) against the in-memory
+ * {@link GuestNameIndex}, over all guests and over checked-in guests only.
+ * Guests are inserted with JDBC batches, one in every 500 still checked in, and the
+ * index is rebuilt afterwards: checking half a million guests in through the service
+ * would make seeding the bulk of the run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class GuestNameSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Karen",
+            "Wei", "Aiko", "Mohammed", "Fatima", "Olga", "Ivan", "Lucia", "Mateo", "Priya", "Arjun"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+            "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter", "Roberts",
+            "Kowalski", "Novak", "Tanaka", "Suzuki", "Müller", "Schmidt", "Rossi", "Bianchi", "Dubois", "Moreau"};
+    // Whole and partial names, one misspelt, as typed at the front desk
+    private static final String[] QUERIES = {
+            "smith", "garc", "nguyen", "rodrigues", "john", "kowal", "maria lopez", "schmidt", "tanak", "wei lee"};
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final int CHECKED_IN_EVERY = 500;
+
+    @Param({"500000"})
+    public int guestCount;
+
+    private ConfigurableApplicationContext context;
+    private GuestRepository guestRepository;
+    private GuestNameIndex guestNameIndex;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContexts.start();
+        guestRepository = context.getBean(GuestRepository.class);
+        guestNameIndex = context.getBean(GuestNameIndex.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        seed(context.getBean(JdbcTemplate.class), guestCount);
+        guestNameIndex.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int likeQueryAllGuests() {
+        String query = randomQuery();
+        return readOnlyTransaction.execute(status -> {
+            List<Guest> guests = guestRepository.findByNameContainingIgnoreCase(query);
+            return guests.size();
+        });
+    }
+
+    @Benchmark
+    public List<GuestSearchResultDto> indexSearchAllGuests() {
+        return guestNameIndex.search(randomQuery(), false, 20);
+    }
+
+    @Benchmark
+    public List<GuestSearchResultDto> indexSearchCheckedInGuests() {
+        return guestNameIndex.search(randomQuery(), true, 20);
+    }
+
+    private static String randomQuery() {
+        return QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)];
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int guestCount) {
+        Timestamp checkInTime = Timestamp.valueOf(LocalDateTime.now().minusDays(7));
+        Timestamp checkOutTime = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < guestCount; i++) {
+            String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+            String roomNumber = "N" + i;
+            boolean checkedIn = i % CHECKED_IN_EVERY == 0;
+            batch.add(new Object[]{name, roomNumber, checkInTime, checkedIn ? null : checkOutTime, checkedIn ? roomNumber : null});
+            if (batch.size() == INSERT_BATCH_SIZE || i == guestCount - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO guests (name, room_number, check_in_time, check_out_time, "
+                        + "active_room_number, version) VALUES (?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.service.GuestService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GuestService#checkInGuest} and {@link GuestService#checkOutGuestByRoomNumber}
+ * against a seeded database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class GuestServiceBenchmark {
+
+    @Param({"1000"})
+    public int guestCount;
+
+    @Param({"10"})
+    public int parcelsPerGuest;
+
+    private ConfigurableApplicationContext context;
+    private GuestService guestService;
+    private long roomSequence;
+
+    private String roomToCheckOut;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContexts.start();
+        guestService = context.getBean(GuestService.class);
+        BenchmarkDataset.seed(context, guestCount, parcelsPerGuest);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // Each check-out needs its own occupied room; checking the guest in is excluded from the measurement
+    @Setup(Level.Invocation)
+    public void checkInGuestToCheckOut(BenchmarkParams params) {
+        if (params.getBenchmark().endsWith("checkOutGuestByRoomNumber")) {
+            roomToCheckOut = guestService.checkInGuest(nextGuest()).getRoomNumber();
+        }
+    }
+
+    @Benchmark
+    public GuestDto checkInGuest() {
+        return guestService.checkInGuest(nextGuest());
+    }
+
+    @Benchmark
+    public GuestDto checkOutGuestByRoomNumber() {
+        return guestService.checkOutGuestByRoomNumber(roomToCheckOut);
+    }
+
+    private GuestDto nextGuest() {
+        long sequence = roomSequence++;
+        return new GuestDto("Benchmark guest " + sequence, "B" + sequence);
+    }
+}
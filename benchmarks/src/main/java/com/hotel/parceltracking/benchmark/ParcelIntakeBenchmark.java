@@ -0,0 +1,79 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelBatchResultDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.ParcelService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a courier drop-off accepted one parcel at a time
+ * ({@link ParcelService#acceptParcel}) against the bulk intake path
+ * ({@link ParcelService#acceptParcels}).
+ * One operation is one whole drop-off of {@code dropOffSize} parcels.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ParcelIntakeBenchmark {
+
+    @Param({"50", "200"})
+    public int dropOffSize;
+
+    @Param({"100"})
+    public int guestCount;
+
+    private ConfigurableApplicationContext context;
+    private ParcelService parcelService;
+    private List<Long> guestIds;
+    private long trackingSequence;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContexts.start();
+        parcelService = context.getBean(ParcelService.class);
+        GuestService guestService = context.getBean(GuestService.class);
+
+        guestIds = new ArrayList<>(guestCount);
+        for (int i = 0; i < guestCount; i++) {
+            guestIds.add(guestService.checkInGuest(new GuestDto("Guest " + i, "R" + i)).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int acceptOneByOne() {
+        for (ParcelDto parcel : nextDropOff()) {
+            parcelService.acceptParcel(parcel);
+        }
+        return dropOffSize;
+    }
+
+    @Benchmark
+    public ParcelBatchResultDto acceptAsBatch() {
+        return parcelService.acceptParcels(nextDropOff());
+    }
+
+    private List<ParcelDto> nextDropOff() {
+        List<ParcelDto> parcels = new ArrayList<>(dropOffSize);
+        for (int i = 0; i < dropOffSize; i++) {
+            long sequence = trackingSequence++;
+            Long guestId = guestIds.get((int) (sequence % guestIds.size()));
+            parcels.add(new ParcelDto("BENCH" + sequence, "Courier", "Benchmark parcel", guestId));
+        }
+        return parcels;
+    }
+}
@@ -0,0 +1,86 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.model.Parcel;
+import com.hotel.parceltracking.service.ParcelService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the single-parcel service operations against a seeded database:
+ * {@link ParcelService#acceptParcel}, {@link ParcelService#collectParcel}
+ * and the entity-to-DTO mapping in {@link ParcelService#convertToDto}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ParcelServiceBenchmark {
+
+    @Param({"1000"})
+    public int guestCount;
+
+    @Param({"10"})
+    public int parcelsPerGuest;
+
+    private ConfigurableApplicationContext context;
+    private ParcelService parcelService;
+    private BenchmarkDataset dataset;
+    private long trackingSequence;
+
+    private Long parcelToCollect;
+    private Parcel detachedParcel;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContexts.start();
+        parcelService = context.getBean(ParcelService.class);
+        dataset = BenchmarkDataset.seed(context, guestCount, parcelsPerGuest);
+
+        Guest guest = new Guest("Guest 0", "S0", LocalDateTime.now());
+        guest.setId(dataset.guestId(0));
+        detachedParcel = new Parcel("DETACHED-1", "Courier", "Benchmark parcel", guest);
+        detachedParcel.setId(1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // Each collection needs its own uncollected parcel; accepting it is excluded from the measurement
+    @Setup(Level.Invocation)
+    public void acceptParcelToCollect(BenchmarkParams params) {
+        if (params.getBenchmark().endsWith("collectParcel")) {
+            parcelToCollect = parcelService.acceptParcel(nextParcel()).getId();
+        }
+    }
+
+    @Benchmark
+    public ParcelDto acceptParcel() {
+        return parcelService.acceptParcel(nextParcel());
+    }
+
+    @Benchmark
+    public ParcelDto collectParcel() {
+        return parcelService.collectParcel(parcelToCollect);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public ParcelDto convertToDto() {
+        return parcelService.convertToDto(detachedParcel);
+    }
+
+    private ParcelDto nextParcel() {
+        long sequence = trackingSequence++;
+        return new ParcelDto("BENCH-" + sequence, "Courier", "Benchmark parcel", dataset.guestId(sequence));
+    }
+}
@@ -0,0 +1,132 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.ParcelTrackingApplication;
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.ParcelService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Restart and recovery comparison for the {@code prod} profile's file-backed database.
+ * Seeds {@code parcels} parcels for {@code guests} checked-in guests into a fresh data directory,
+ * then restarts the application {@code restarts} times after a clean shutdown and as many times
+ * after a simulated crash ({@code SHUTDOWN IMMEDIATELY}, which closes the database without
+ * writing it out, as a power failure would).
+ * Prints time-to-ready (context start, including the Bloom filter and occupancy index warm-up),
+ * the latency of the first tracking number lookup, and the parcel count found after each restart.
+ * <p>
+ * Run with: {@code mvn -f benchmarks/pom.xml compile exec:java
+ * -Dexec.mainClass=com.hotel.parceltracking.benchmark.RestartRecoveryComparison
+ * [-Dexec.args="parcels guests restarts"]} (defaults: 1000000 1000 3).
+ * Not a JMH benchmark: each measurement is a whole application start.
+ */
+public final class RestartRecoveryComparison {
+
+    // Rows per seeding statement, so no single transaction holds the whole dataset
+    private static final int SEED_CHUNK_SIZE = 100_000;
+
+    private RestartRecoveryComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int guests = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int restarts = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Path dataDir = Files.createTempDirectory("parceldb-restart-");
+        try {
+            long seedStart = System.nanoTime();
+            try (ConfigurableApplicationContext context = start(dataDir)) {
+                seed(context, parcels, guests);
+            }
+            System.out.printf("%nSeeded %d parcels for %d guests in %.1f s; database file %.0f MB%n",
+                    parcels, guests, (System.nanoTime() - seedStart) / 1e9, directorySize(dataDir) / 1e6);
+
+            System.out.printf("%-10s %8s %12s %18s %10s%n", "after", "restart", "ready ms", "first lookup ms", "parcels");
+            boolean crashed = false;
+            for (int run = 0; run < 2 * restarts; run++) {
+                // The first restarts follow a clean shutdown, the rest follow a crash
+                boolean crashAfterwards = run >= restarts - 1 && run < 2 * restarts - 1;
+                long start = System.nanoTime();
+                try (ConfigurableApplicationContext context = start(dataDir)) {
+                    double readyMillis = (System.nanoTime() - start) / 1e6;
+
+                    long lookupStart = System.nanoTime();
+                    context.getBean(ParcelService.class).getParcelByTrackingNumber("RESTART-" + (parcels / 2));
+                    double lookupMillis = (System.nanoTime() - lookupStart) / 1e6;
+
+                    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                    Long parcelCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM parcels", Long.class);
+                    System.out.printf("%-10s %8d %12.0f %18.1f %10d%n", crashed ? "crash" : "clean",
+                            run % restarts + 1, readyMillis, lookupMillis, parcelCount);
+
+                    if (crashAfterwards) {
+                        // The pool's connections are broken afterwards; closing the context discards them
+                        jdbcTemplate.execute("SHUTDOWN IMMEDIATELY");
+                    }
+                }
+                crashed = crashAfterwards;
+            }
+        } finally {
+            deleteRecursively(dataDir);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path dataDir) {
+        return new SpringApplicationBuilder(ParcelTrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .profiles("prod")
+                .properties(
+                        "logging.level.root=WARN",
+                        "logging.level.com.hotel.parceltracking=WARN")
+                // A command-line argument, as a default property would lose to application-prod.yml
+                .run("--parcel-tracking.data-dir=" + dataDir.toAbsolutePath());
+    }
+
+    /**
+     * Checks in the guests through the service, then inserts the parcels with set-based
+     * statements: going through parcel intake would make seeding, not restarting, the bulk
+     * of the run.
+     */
+    private static void seed(ConfigurableApplicationContext context, int parcels, int guests) {
+        GuestService guestService = context.getBean(GuestService.class);
+        long firstGuestId = guestService.checkInGuest(new GuestDto("Guest 0", "S0")).getId();
+        for (int i = 1; i < guests; i++) {
+            guestService.checkInGuest(new GuestDto("Guest " + i, "S" + i));
+        }
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int from = 1; from <= parcels; from += SEED_CHUNK_SIZE) {
+            int to = Math.min(parcels, from + SEED_CHUNK_SIZE - 1);
+            jdbcTemplate.update("INSERT INTO parcels (id, tracking_number, sender, description, arrival_time, "
+                            + "is_collected, guest_id, version) "
+                            + "SELECT NEXT VALUE FOR parcels_seq, 'RESTART-' || X, 'Courier', 'Seeded parcel', "
+                            + "CURRENT_TIMESTAMP, FALSE, ? + MOD(X, ?), 0 FROM SYSTEM_RANGE(?, ?)",
+                    firstGuestId, guests, from, to);
+        }
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.RoomOccupancyIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares room status and room-to-guest lookups answered by the database
+ * (the COUNT query and the load-all-checked-in-guests scan used before)
+ * against the in-memory {@link RoomOccupancyIndex}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RoomOccupancyBenchmark {
+
+    @Param({"100", "1000"})
+    public int checkedInGuests;
+
+    private ConfigurableApplicationContext context;
+    private GuestRepository guestRepository;
+    private RoomOccupancyIndex roomOccupancyIndex;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContexts.start();
+        guestRepository = context.getBean(GuestRepository.class);
+        roomOccupancyIndex = context.getBean(RoomOccupancyIndex.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        GuestService guestService = context.getBean(GuestService.class);
+        for (int i = 0; i < checkedInGuests; i++) {
+            guestService.checkInGuest(new GuestDto("Guest " + i, "R" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean roomStatusFromDatabase() {
+        return guestRepository.isGuestCheckedInByRoomNumber(randomRoom());
+    }
+
+    @Benchmark
+    public boolean roomStatusFromIndex() {
+        return roomOccupancyIndex.isOccupied(randomRoom());
+    }
+
+    @Benchmark
+    public Optional<Long> guestInRoomFromDatabaseScan() {
+        String roomNumber = randomRoom();
+        return readOnlyTransaction.execute(status -> guestRepository.findAllCheckedInGuests().stream()
+                .filter(guest -> guest.getRoomNumber().equals(roomNumber))
+                .map(Guest::getId)
+                .findFirst());
+    }
+
+    @Benchmark
+    public Optional<Long> guestInRoomFromIndex() {
+        return roomOccupancyIndex.findGuestId(randomRoom());
+    }
+
+    private String randomRoom() {
+        return "R" + ThreadLocalRandom.current().nextInt(checkedInGuests);
+    }
+}
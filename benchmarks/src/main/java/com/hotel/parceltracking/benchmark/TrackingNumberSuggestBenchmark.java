@@ -0,0 +1,95 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.TrackingNumberPrefixIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares completing a partly typed tracking number with a prefix {@code LIKE} query, which
+ * can range-scan the unique index on tracking_number, against {@link TrackingNumberPrefixIndex}.
+ * Guests are checked in through the service and parcels inserted with set-based statements;
+ * the index is rebuilt afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TrackingNumberSuggestBenchmark {
+
+    private static final int GUESTS = 100;
+    private static final int SEED_CHUNK_SIZE = 100_000;
+    private static final int SUGGESTIONS = 10;
+
+    @Param({"1000000"})
+    public int parcelCount;
+
+    // Typed prefix length, e.g. 6 for "TRK123" out of "TRK1234567"
+    @Param({"4", "6"})
+    public int prefixLength;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TrackingNumberPrefixIndex trackingNumberPrefixIndex;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContexts.start();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        trackingNumberPrefixIndex = context.getBean(TrackingNumberPrefixIndex.class);
+
+        seed(context, parcelCount);
+        trackingNumberPrefixIndex.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<String> likeQuery() {
+        return jdbcTemplate.queryForList("SELECT tracking_number FROM parcels WHERE tracking_number LIKE ? "
+                        + "AND is_collected = FALSE ORDER BY tracking_number LIMIT ?",
+                String.class, randomPrefix() + "%", SUGGESTIONS);
+    }
+
+    @Benchmark
+    public List<String> prefixIndex() {
+        return trackingNumberPrefixIndex.suggest(randomPrefix(), SUGGESTIONS);
+    }
+
+    private String randomPrefix() {
+        String trackingNumber = "TRK" + (1_000_000 + ThreadLocalRandom.current().nextInt(parcelCount));
+        return trackingNumber.substring(0, Math.min(prefixLength, trackingNumber.length()));
+    }
+
+    /**
+     * Checks in the guests through the service, then inserts the parcels with set-based statements.
+     */
+    private static void seed(ConfigurableApplicationContext context, int parcels) {
+        GuestService guestService = context.getBean(GuestService.class);
+        long firstGuestId = guestService.checkInGuest(new GuestDto("Guest 0", "P0")).getId();
+        for (int i = 1; i < GUESTS; i++) {
+            guestService.checkInGuest(new GuestDto("Guest " + i, "P" + i));
+        }
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int from = 0; from < parcels; from += SEED_CHUNK_SIZE) {
+            int to = Math.min(parcels, from + SEED_CHUNK_SIZE) - 1;
+            jdbcTemplate.update("INSERT INTO parcels (id, tracking_number, sender, description, arrival_time, "
+                            + "is_collected, guest_id, version) "
+                            + "SELECT NEXT VALUE FOR parcels_seq, 'TRK' || (1000000 + X), 'Courier', 'Seeded parcel', "
+                            + "CURRENT_TIMESTAMP, FALSE, ? + MOD(X, ?), 0 FROM SYSTEM_RANGE(?, ?)",
+                    firstGuestId, GUESTS, from, to);
+        }
+    }
+}
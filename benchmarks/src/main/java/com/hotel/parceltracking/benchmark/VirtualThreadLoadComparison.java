@@ -0,0 +1,159 @@
+package com.hotel.parceltracking.benchmark;
+
+import com.hotel.parceltracking.ParcelTrackingApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load comparison of the default Tomcat platform-thread pool against the
+ * {@code virtual-threads} profile.
+ * For each mode it starts the application on a random port, checks in {@code guests} guests,
+ * then runs {@code clients} concurrent closed-loop HTTP clients for {@code seconds} seconds.
+ * Each client request is a room parcel lookup, or (one in five) a parcel acceptance.
+ * Prints throughput, error count and latency percentiles per mode.
+ * <p>
+ * Run with: {@code mvn -f benchmarks/pom.xml compile exec:java
+ * -Dexec.mainClass=com.hotel.parceltracking.benchmark.VirtualThreadLoadComparison
+ * [-Dexec.args="clients seconds guests"]} (defaults: 1000 30 500).
+ * Not a JMH benchmark: the clients must be outside the measured JVM's request threads.
+ */
+public final class VirtualThreadLoadComparison {
+
+    private VirtualThreadLoadComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int guests = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        List<Result> results = new ArrayList<>();
+        results.add(run("platform threads", clients, seconds, guests));
+        results.add(run("virtual threads", clients, seconds, guests, "spring.profiles.active=virtual-threads"));
+
+        System.out.printf("%n%d clients, %d s%n", clients, seconds);
+        System.out.printf("%-18s %12s %8s %10s %10s %10s%n", "mode", "requests/s", "errors", "p50 ms", "p99 ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-18s %12.0f %8d %10.1f %10.1f %10.1f%n", result.mode, result.throughput(),
+                    result.errors.sum(), result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0));
+        }
+    }
+
+    private static Result run(String mode, int clients, int seconds, int guests, String... properties) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ParcelTrackingApplication.class)
+                .logStartupInfo(false)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.hotel.parceltracking=WARN",
+                        "logging.level.org.springframework.web=WARN")
+                .properties(properties)
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + "/api";
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            for (int i = 0; i < guests; i++) {
+                send(httpClient, post(baseUrl + "/guests/check-in",
+                        "{\"name\":\"Guest " + i + "\",\"roomNumber\":\"L" + i + "\"}"));
+            }
+
+            System.out.printf("%s: %d clients for %d s...%n", mode, clients, seconds);
+            Result result = new Result(mode, seconds * 1000L);
+            AtomicLong trackingSequence = new AtomicLong();
+            long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    clientThreads.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            int guest = random.nextInt(guests);
+                            HttpRequest request = random.nextInt(5) == 0
+                                    ? post(baseUrl + "/parcels/accept", "{\"trackingNumber\":\"LOAD" + trackingSequence.incrementAndGet()
+                                            + "\",\"sender\":\"Courier\",\"guestId\":" + (guest + 1) + "}")
+                                    : HttpRequest.newBuilder(URI.create(baseUrl + "/parcels/room/L" + guest + "/available")).build();
+                            long start = System.nanoTime();
+                            boolean ok = send(httpClient, request);
+                            result.record(System.nanoTime() - start, ok);
+                        }
+                    });
+                }
+            }
+            return result;
+        }
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static boolean send(HttpClient httpClient, HttpRequest request) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Latencies and errors of one run.
+     */
+    private static final class Result {
+
+        private final String mode;
+        private final long durationMillis;
+        private final List<Long> latencies = new ArrayList<>();
+        private final LongAdder errors = new LongAdder();
+
+        Result(String mode, long durationMillis) {
+            this.mode = mode;
+            this.durationMillis = durationMillis;
+        }
+
+        synchronized void record(long latencyNanos, boolean ok) {
+            latencies.add(latencyNanos);
+            if (!ok) {
+                errors.increment();
+            }
+        }
+
+        double throughput() {
+            return latencies.size() * 1000.0 / durationMillis;
+        }
+
+        double percentileMillis(double percentile) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            if (sorted.length == 0) {
+                return 0;
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
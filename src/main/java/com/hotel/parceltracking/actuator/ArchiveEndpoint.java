@@ -0,0 +1,33 @@
+package com.hotel.parceltracking.actuator;
+
+import com.hotel.parceltracking.dto.ArchiveResultDto;
+import com.hotel.parceltracking.service.ArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint for the archiver.
+ * Runs an archive pass now instead of waiting for the schedule. Not exposed over HTTP by
+ * default, as it moves data without authentication; operators invoke it over JMX.
+ */
+@Component
+@Endpoint(id = "archive")
+public class ArchiveEndpoint {
+    
+    private final ArchiveService archiveService;
+    
+    @Autowired
+    public ArchiveEndpoint(ArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+    
+    /**
+     * Archives everything older than the configured minimum age and returns the counts.
+     */
+    @WriteOperation
+    public ArchiveResultDto archive() {
+        return archiveService.archive();
+    }
+}
@@ -0,0 +1,48 @@
+package com.hotel.parceltracking.actuator;
+
+import com.hotel.parceltracking.journal.JournalRecord;
+import com.hotel.parceltracking.journal.LifecycleJournal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the lifecycle journal, available when the journal is enabled.
+ * GET /actuator/journal shows its position and sync statistics;
+ * GET /actuator/journal/{trackingNumber} replays what happened to a tracking number
+ * from the journal files, without querying the database.
+ */
+@Component
+@Endpoint(id = "journal")
+@ConditionalOnProperty(prefix = "parcel-tracking.journal", name = "enabled", havingValue = "true")
+public class JournalEndpoint {
+
+    private final LifecycleJournal journal;
+
+    @Autowired
+    public JournalEndpoint(LifecycleJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the journal statistics.
+     */
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        return journal.statistics();
+    }
+
+    /**
+     * Gets the journal records of a tracking number, oldest first.
+     */
+    @ReadOperation
+    public List<JournalRecord> history(@Selector String trackingNumber) {
+        return journal.reader().findByTrackingNumber(trackingNumber);
+    }
+}
@@ -0,0 +1,45 @@
+package com.hotel.parceltracking.actuator;
+
+import com.hotel.parceltracking.service.TrackingNumberBloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the tracking number Bloom filter.
+ * Shows sizing and false-positive statistics and rebuilds the filter from the database.
+ * Not exposed over HTTP by default, as a rebuild scans the whole parcels table without
+ * authentication; operators invoke it over JMX.
+ */
+@Component
+@Endpoint(id = "trackingfilter")
+public class TrackingNumberFilterEndpoint {
+    
+    private final TrackingNumberBloomFilter trackingNumberFilter;
+    
+    @Autowired
+    public TrackingNumberFilterEndpoint(TrackingNumberBloomFilter trackingNumberFilter) {
+        this.trackingNumberFilter = trackingNumberFilter;
+    }
+    
+    /**
+     * Gets the filter statistics.
+     */
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        return trackingNumberFilter.statistics();
+    }
+    
+    /**
+     * Rebuilds the filter from the parcels table and returns the new statistics.
+     */
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        trackingNumberFilter.rebuild();
+        return trackingNumberFilter.statistics();
+    }
+}
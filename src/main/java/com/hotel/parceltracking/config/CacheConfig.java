@@ -0,0 +1,33 @@
+package com.hotel.parceltracking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache configuration.
+ * Caches are Caffeine-backed (bounded, TTL-evicting, with statistics for actuator metrics)
+ * and transaction-aware, so evictions triggered by a write are applied only after it commits.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    /**
+     * Parcel DTOs keyed by tracking number.
+     */
+    public static final String PARCELS_BY_TRACKING_NUMBER = "parcelsByTrackingNumber";
+    
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${parcel-tracking.cache.parcels-by-tracking-number}") String parcelsByTrackingNumberSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(PARCELS_BY_TRACKING_NUMBER);
+        caffeineCacheManager.setCacheSpecification(parcelsByTrackingNumberSpec);
+        caffeineCacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,58 @@
+package com.hotel.parceltracking.config;
+
+import com.hotel.parceltracking.service.OverdueParcelTracker;
+import com.hotel.parceltracking.service.ParcelStatistics;
+import com.hotel.parceltracking.service.RoomOccupancyIndex;
+import io.micrometer.core.aop.CountedAspect;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics configuration.
+ * Enables the {@code @Timed}/{@code @Counted} annotations on the services and registers
+ * the business gauges. Hibernate statistics and connection-pool metrics are bound by
+ * Spring Boot's auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Timer name of the service operations, tagged with class and method.
+     */
+    public static final String SERVICE_TIMER = "parcel.tracking.service";
+
+    /**
+     * Counter name of the service operations, tagged with class, method and result.
+     */
+    public static final String SERVICE_COUNTER = "parcel.tracking.service.calls";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public CountedAspect countedAspect(MeterRegistry meterRegistry) {
+        return new CountedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder businessMetrics(ParcelStatistics parcelStatistics, OverdueParcelTracker overdueParcelTracker,
+                                       RoomOccupancyIndex roomOccupancyIndex) {
+        return registry -> {
+            Gauge.builder("parcel.tracking.parcels.uncollected", parcelStatistics, ParcelStatistics::totalUncollected)
+                    .description("Parcels waiting to be collected")
+                    .register(registry);
+            Gauge.builder("parcel.tracking.parcels.overdue", overdueParcelTracker, OverdueParcelTracker::overdueCount)
+                    .description("Uncollected parcels past the collection SLA or left behind at check-out")
+                    .register(registry);
+            Gauge.builder("parcel.tracking.guests.checked.in", roomOccupancyIndex, RoomOccupancyIndex::occupiedRoomCount)
+                    .description("Guests currently checked in")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.hotel.parceltracking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Page size settings for the keyset-paginated list endpoints.
+ */
+@Component
+@ConfigurationProperties(prefix = "parcel-tracking.pagination")
+@Getter
+@Setter
+public class PaginationProperties {
+    
+    /**
+     * Page size used when the client does not ask for one.
+     */
+    private int defaultPageSize = 50;
+    
+    /**
+     * Upper bound for client-requested page sizes.
+     */
+    private int maxPageSize = 500;
+    
+    /**
+     * Resolves the page size for a request.
+     * @param requestedSize the size asked for by the client, may be null
+     * @return the requested size clamped to [1, maxPageSize], or the default size
+     */
+    public int resolvePageSize(Integer requestedSize) {
+        if (requestedSize == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(requestedSize, maxPageSize));
+    }
+}
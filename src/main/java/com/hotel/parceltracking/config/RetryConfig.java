@@ -0,0 +1,43 @@
+package com.hotel.parceltracking.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Retry configuration.
+ * Service writes annotated with {@link RetryOnConflict} are retried when they lose an
+ * optimistic locking race. The retry advice is ordered before the transaction advice,
+ * so every attempt runs in a fresh transaction and re-reads the current state.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+    
+    /**
+     * Counter of optimistic locking conflicts on service writes.
+     */
+    public static final String WRITE_CONFLICTS = "parcel.tracking.write.conflicts";
+    
+    /**
+     * Counts every failed attempt; applies to all retryable methods without their own listeners.
+     */
+    @Bean
+    public RetryListener writeConflictCounter(MeterRegistry meterRegistry) {
+        Counter conflicts = Counter.builder(WRITE_CONFLICTS)
+                .description("Optimistic locking conflicts on service writes (retried until the attempts run out)")
+                .register(meterRegistry);
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                         Throwable throwable) {
+                conflicts.increment();
+            }
+        };
+    }
+}
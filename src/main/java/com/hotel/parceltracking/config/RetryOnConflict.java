@@ -0,0 +1,28 @@
+package com.hotel.parceltracking.config;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries a transactional write that fails its optimistic lock check, with a bounded number
+ * of attempts and a jittered exponential backoff. Once the attempts run out the
+ * {@link OptimisticLockingFailureException} propagates (and is answered with 409 Conflict).
+ * Only applies to calls through the Spring proxy, not to self-invocations.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(retryFor = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${parcel-tracking.retry.max-attempts:3}",
+        backoff = @Backoff(delayExpression = "${parcel-tracking.retry.initial-backoff-ms:5}",
+                maxDelayExpression = "${parcel-tracking.retry.max-backoff-ms:50}",
+                multiplier = 2, random = true))
+public @interface RetryOnConflict {
+}
@@ -1,6 +1,13 @@
 package com.hotel.parceltracking.controller;
 
+import com.hotel.parceltracking.config.PaginationProperties;
+import com.hotel.parceltracking.dto.CursorPageDto;
+import com.hotel.parceltracking.dto.GuestCheckOutBatchRequestDto;
+import com.hotel.parceltracking.dto.GuestCheckOutBatchResultDto;
 import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.GuestSearchResultDto;
+import com.hotel.parceltracking.service.DataVersion;
+import com.hotel.parceltracking.service.ExportService;
 import com.hotel.parceltracking.service.GuestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,10 +16,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -25,10 +36,17 @@ import java.util.List;
 public class GuestController {
     
     private final GuestService guestService;
+    private final PaginationProperties paginationProperties;
+    private final ExportService exportService;
+    private final DataVersion dataVersion;
     
     @Autowired
-    public GuestController(GuestService guestService) {
+    public GuestController(GuestService guestService, PaginationProperties paginationProperties,
+                           ExportService exportService, DataVersion dataVersion) {
         this.guestService = guestService;
+        this.paginationProperties = paginationProperties;
+        this.exportService = exportService;
+        this.dataVersion = dataVersion;
     }
     
     /**
@@ -62,26 +80,71 @@ public class GuestController {
         return ResponseEntity.ok(checkedOutGuest);
     }
     
+    /**
+     * Checks out many guests at once, e.g. the morning's departures.
+     */
+    @PostMapping("/check-out/batch")
+    @Operation(summary = "Check out guests in bulk",
+            description = "Checks out guests by ID and/or room number in one transaction and reports, per guest, "
+                    + "the outcome and any parcels left uncollected. Invalid entries are rejected individually.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see the per-guest results"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<GuestCheckOutBatchResultDto> checkOutGuests(@Valid @RequestBody GuestCheckOutBatchRequestDto request) {
+        GuestCheckOutBatchResultDto result = guestService.checkOutGuests(request.getGuestIds(), request.getRoomNumbers());
+        return ResponseEntity.ok(result);
+    }
+    
     /**
      * Gets all currently checked-in guests.
+     * Answers 304 without querying when the client's ETag is still current.
      */
     @GetMapping("/checked-in")
     @Operation(summary = "Get all checked-in guests", description = "Retrieves a list of all currently checked-in guests")
-    @ApiResponse(responseCode = "200", description = "List of checked-in guests retrieved successfully")
-    public ResponseEntity<List<GuestDto>> getAllCheckedInGuests() {
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of checked-in guests retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Nothing changed since the ETag in If-None-Match")
+    })
+    public ResponseEntity<List<GuestDto>> getAllCheckedInGuests(WebRequest request) {
+        String etag = dataVersion.etag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         List<GuestDto> checkedInGuests = guestService.getAllCheckedInGuests();
         return ResponseEntity.ok(checkedInGuests);
     }
     
     /**
-     * Gets all guests (checked-in and checked-out).
+     * Searches guests by name.
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search guests by name", description = "Ranked, typo-tolerant search of guest names; names containing the query come first")
+    @ApiResponse(responseCode = "200", description = "Matching guests retrieved successfully, best match first")
+    public ResponseEntity<List<GuestSearchResultDto>> searchGuests(
+            @Parameter(description = "Name or part of it") @RequestParam String q,
+            @Parameter(description = "Search only checked-in guests") @RequestParam(defaultValue = "true") boolean checkedIn,
+            @Parameter(description = "Maximum number of results") @RequestParam(required = false) Integer size) {
+        List<GuestSearchResultDto> results = guestService.searchGuests(q, checkedIn, paginationProperties.resolvePageSize(size));
+        return ResponseEntity.ok(results);
+    }
+    
+    /**
+     * Gets all guests (checked-in and checked-out), one page at a time.
      */
     @GetMapping
-    @Operation(summary = "Get all guests", description = "Retrieves a list of all guests in the system")
-    @ApiResponse(responseCode = "200", description = "List of all guests retrieved successfully")
-    public ResponseEntity<List<GuestDto>> getAllGuests() {
-        List<GuestDto> allGuests = guestService.getAllGuests();
-        return ResponseEntity.ok(allGuests);
+    @Operation(summary = "Get all guests", description = "Retrieves a page of all guests in the system, ordered by ID")
+    @ApiResponse(responseCode = "200", description = "Page of guests retrieved successfully")
+    public ResponseEntity<CursorPageDto<GuestDto>> getAllGuests(
+            @Parameter(description = "Cursor: return guests with an ID greater than this") @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Include archived guests") @RequestParam(defaultValue = "false") boolean history) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        CursorPageDto<GuestDto> guests = history
+                ? guestService.getGuestsIncludingHistory(after, pageSize)
+                : guestService.getGuests(after, pageSize);
+        return ResponseEntity.ok(guests);
     }
     
     /**
@@ -93,8 +156,12 @@ public class GuestController {
             @ApiResponse(responseCode = "200", description = "Guest found"),
             @ApiResponse(responseCode = "404", description = "Guest not found")
     })
-    public ResponseEntity<GuestDto> getGuestById(@Parameter(description = "Guest ID") @PathVariable Long guestId) {
-        GuestDto guest = guestService.getGuestById(guestId);
+    public ResponseEntity<GuestDto> getGuestById(
+            @Parameter(description = "Guest ID") @PathVariable Long guestId,
+            @Parameter(description = "Include archived guests and parcels") @RequestParam(defaultValue = "false") boolean history) {
+        GuestDto guest = history
+                ? guestService.getGuestByIdIncludingHistory(guestId)
+                : guestService.getGuestById(guestId);
         return ResponseEntity.ok(guest);
     }
     
@@ -108,4 +175,24 @@ public class GuestController {
         boolean isCheckedIn = guestService.isGuestCheckedIn(roomNumber);
         return ResponseEntity.ok(isCheckedIn);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Exports guests as NDJSON, streamed from the database.
+     */
+    @GetMapping(path = "/export", produces = NdjsonResponses.NDJSON_VALUE)
+    @Operation(summary = "Export guests",
+            description = "Streams guests ordered by ID as newline-delimited JSON, optionally gzip-encoded. Memory use does not depend on the number of rows")
+    @ApiResponse(responseCode = "200", description = "Export streamed successfully")
+    public ResponseEntity<StreamingResponseBody> exportGuests(
+            @Parameter(description = "Only guests who checked in at or after this time (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only guests who checked in before this time (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Only checked-in (true) or checked-out (false) guests")
+            @RequestParam(required = false) Boolean checkedIn,
+            @Parameter(description = "Include archived guests") @RequestParam(defaultValue = "false") boolean history,
+            @Parameter(description = "Gzip-encode the response") @RequestParam(defaultValue = "false") boolean gzip) {
+        return NdjsonResponses.stream("guests", gzip,
+                out -> exportService.exportGuests(from, to, checkedIn, history, gzip, out));
+    }
+}
@@ -0,0 +1,38 @@
+package com.hotel.parceltracking.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Builds streamed NDJSON export responses.
+ */
+final class NdjsonResponses {
+
+    /**
+     * Media type of newline-delimited JSON.
+     */
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * Wraps an export in a streaming response that downloads as {@code <name>.ndjson}.
+     * The body is written on an async request thread after the controller method returns.
+     * @param name the download file name without extension
+     * @param gzip whether the export writes gzip-encoded output (sent as Content-Encoding)
+     * @param body writes the export to the response
+     * @return the streaming response
+     */
+    static ResponseEntity<StreamingResponseBody> stream(String name, boolean gzip, StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".ndjson\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
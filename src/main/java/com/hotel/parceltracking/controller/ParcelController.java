@@ -1,6 +1,15 @@
 package com.hotel.parceltracking.controller;
 
+import com.hotel.parceltracking.config.PaginationProperties;
+import com.hotel.parceltracking.dto.CursorPageDto;
+import com.hotel.parceltracking.dto.OverdueParcelDto;
+import com.hotel.parceltracking.dto.ParcelBatchRequestDto;
+import com.hotel.parceltracking.dto.ParcelBatchResultDto;
 import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.dto.ParcelStatisticsDto;
+import com.hotel.parceltracking.service.DataVersion;
+import com.hotel.parceltracking.service.ExportService;
+import com.hotel.parceltracking.service.LifecycleEventBroadcaster;
 import com.hotel.parceltracking.service.ParcelService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,10 +18,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -25,10 +40,20 @@ import java.util.List;
 public class ParcelController {
     
     private final ParcelService parcelService;
+    private final PaginationProperties paginationProperties;
+    private final LifecycleEventBroadcaster lifecycleEventBroadcaster;
+    private final ExportService exportService;
+    private final DataVersion dataVersion;
     
     @Autowired
-    public ParcelController(ParcelService parcelService) {
+    public ParcelController(ParcelService parcelService, PaginationProperties paginationProperties,
+                            LifecycleEventBroadcaster lifecycleEventBroadcaster, ExportService exportService,
+                            DataVersion dataVersion) {
         this.parcelService = parcelService;
+        this.paginationProperties = paginationProperties;
+        this.lifecycleEventBroadcaster = lifecycleEventBroadcaster;
+        this.exportService = exportService;
+        this.dataVersion = dataVersion;
     }
     
     /**
@@ -47,6 +72,21 @@ public class ParcelController {
         return new ResponseEntity<>(acceptedParcel, HttpStatus.CREATED);
     }
     
+    /**
+     * Accepts a batch of parcels, e.g. a courier drop-off, in a single request.
+     */
+    @PostMapping("/accept/batch")
+    @Operation(summary = "Accept a batch of parcels", description = "Accepts many parcels at once and reports success or failure for each one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see per-parcel results"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ParcelBatchResultDto> acceptParcels(@Valid @RequestBody ParcelBatchRequestDto request) {
+        ParcelBatchResultDto result = parcelService.acceptParcels(request.getParcels());
+        return ResponseEntity.ok(result);
+    }
+    
     /**
      * Marks a parcel as collected by parcel ID.
      */
@@ -102,36 +142,96 @@ public class ParcelController {
     }
     
     /**
-     * Gets all uncollected parcels in the system.
+     * Gets all uncollected parcels in the system, one page at a time.
+     * Answers 304 without querying when the client's ETag is still current.
      */
     @GetMapping("/uncollected")
-    @Operation(summary = "Get all uncollected parcels", description = "Retrieves all uncollected parcels in the system")
-    @ApiResponse(responseCode = "200", description = "Uncollected parcels retrieved successfully")
-    public ResponseEntity<List<ParcelDto>> getAllUncollectedParcels() {
-        List<ParcelDto> uncollectedParcels = parcelService.getAllUncollectedParcels();
+    @Operation(summary = "Get all uncollected parcels", description = "Retrieves a page of uncollected parcels in the system, ordered by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of uncollected parcels retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Nothing changed since the ETag in If-None-Match")
+    })
+    public ResponseEntity<CursorPageDto<ParcelDto>> getAllUncollectedParcels(
+            @Parameter(description = "Cursor: return parcels with an ID greater than this") @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        String etag = dataVersion.etag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        CursorPageDto<ParcelDto> uncollectedParcels = parcelService.getUncollectedParcels(after, paginationProperties.resolvePageSize(size));
         return ResponseEntity.ok(uncollectedParcels);
     }
     
+    /**
+     * Gets live parcel statistics.
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "Get parcel statistics", description = "Retrieves uncollected parcels per room, dwell time from arrival to collection, and arrivals per hour over the last day")
+    @ApiResponse(responseCode = "200", description = "Parcel statistics retrieved successfully")
+    public ResponseEntity<ParcelStatisticsDto> getStatistics() {
+        ParcelStatisticsDto statistics = parcelService.getStatistics();
+        return ResponseEntity.ok(statistics);
+    }
+    
+    /**
+     * Gets the parcels flagged as overdue.
+     */
+    @GetMapping("/overdue")
+    @Operation(summary = "Get overdue parcels", description = "Retrieves uncollected parcels past the collection SLA or left behind by a checked-out guest, earliest deadline first")
+    @ApiResponse(responseCode = "200", description = "Overdue parcels retrieved successfully")
+    public ResponseEntity<List<OverdueParcelDto>> getOverdueParcels() {
+        List<OverdueParcelDto> overdueParcels = parcelService.getOverdueParcels();
+        return ResponseEntity.ok(overdueParcels);
+    }
+    
     /**
      * Gets all parcels for currently checked-in guests.
+     * Answers 304 without querying when the client's ETag is still current.
      */
     @GetMapping("/checked-in-guests")
     @Operation(summary = "Get parcels for checked-in guests", description = "Retrieves all parcels for currently checked-in guests")
-    @ApiResponse(responseCode = "200", description = "Parcels for checked-in guests retrieved successfully")
-    public ResponseEntity<List<ParcelDto>> getParcelsForCheckedInGuests() {
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Parcels for checked-in guests retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Nothing changed since the ETag in If-None-Match")
+    })
+    public ResponseEntity<List<ParcelDto>> getParcelsForCheckedInGuests(WebRequest request) {
+        String etag = dataVersion.etag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         List<ParcelDto> parcels = parcelService.getParcelsForCheckedInGuests();
         return ResponseEntity.ok(parcels);
     }
     
     /**
-     * Gets all parcels in the system.
+     * Gets all parcels in the system, one page at a time.
      */
     @GetMapping
-    @Operation(summary = "Get all parcels", description = "Retrieves all parcels in the system")
-    @ApiResponse(responseCode = "200", description = "All parcels retrieved successfully")
-    public ResponseEntity<List<ParcelDto>> getAllParcels() {
-        List<ParcelDto> allParcels = parcelService.getAllParcels();
-        return ResponseEntity.ok(allParcels);
+    @Operation(summary = "Get all parcels", description = "Retrieves a page of all parcels in the system, ordered by ID")
+    @ApiResponse(responseCode = "200", description = "Page of parcels retrieved successfully")
+    public ResponseEntity<CursorPageDto<ParcelDto>> getAllParcels(
+            @Parameter(description = "Cursor: return parcels with an ID greater than this") @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Include archived parcels") @RequestParam(defaultValue = "false") boolean history) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        CursorPageDto<ParcelDto> parcels = history
+                ? parcelService.getParcelsIncludingHistory(after, pageSize)
+                : parcelService.getParcels(after, pageSize);
+        return ResponseEntity.ok(parcels);
+    }
+    
+    /**
+     * Suggests tracking numbers from their first characters.
+     */
+    @GetMapping("/tracking/suggest")
+    @Operation(summary = "Suggest tracking numbers", description = "Completes a partly typed tracking number from the uncollected parcels, ignoring case")
+    @ApiResponse(responseCode = "200", description = "Matching tracking numbers retrieved successfully")
+    public ResponseEntity<List<String>> suggestTrackingNumbers(
+            @Parameter(description = "First characters of the tracking number") @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions") @RequestParam(required = false) Integer size) {
+        List<String> suggestions = parcelService.suggestTrackingNumbers(prefix, paginationProperties.resolvePageSize(size));
+        return ResponseEntity.ok(suggestions);
     }
     
     /**
@@ -143,8 +243,45 @@ public class ParcelController {
             @ApiResponse(responseCode = "200", description = "Parcel found"),
             @ApiResponse(responseCode = "404", description = "Parcel not found")
     })
-    public ResponseEntity<ParcelDto> getParcelByTrackingNumber(@Parameter(description = "Tracking number") @PathVariable String trackingNumber) {
-        ParcelDto parcel = parcelService.getParcelByTrackingNumber(trackingNumber);
+    public ResponseEntity<ParcelDto> getParcelByTrackingNumber(
+            @Parameter(description = "Tracking number") @PathVariable String trackingNumber,
+            @Parameter(description = "Include archived parcels when no active parcel has the tracking number") @RequestParam(defaultValue = "false") boolean history) {
+        ParcelDto parcel = history
+                ? parcelService.getParcelByTrackingNumberIncludingHistory(trackingNumber)
+                : parcelService.getParcelByTrackingNumber(trackingNumber);
         return ResponseEntity.ok(parcel);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Streams parcel and guest lifecycle events.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream lifecycle events",
+            description = "Server-Sent Events stream of PARCEL_ACCEPTED, PARCEL_COLLECTED, GUEST_CHECKED_IN and GUEST_CHECKED_OUT events. "
+                    + "Reconnecting clients send Last-Event-ID to receive the events they missed; a RESYNC event means they must reload instead")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    public SseEmitter streamEvents(
+            @Parameter(description = "ID of the last event received") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return lifecycleEventBroadcaster.subscribe(lastEventId);
+    }
+    
+    /**
+     * Exports parcels as NDJSON, streamed from the database.
+     */
+    @GetMapping(path = "/export", produces = NdjsonResponses.NDJSON_VALUE)
+    @Operation(summary = "Export parcels",
+            description = "Streams parcels ordered by ID as newline-delimited JSON, optionally gzip-encoded. Memory use does not depend on the number of rows")
+    @ApiResponse(responseCode = "200", description = "Export streamed successfully")
+    public ResponseEntity<StreamingResponseBody> exportParcels(
+            @Parameter(description = "Only parcels that arrived at or after this time (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only parcels that arrived before this time (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Only collected (true) or uncollected (false) parcels")
+            @RequestParam(required = false) Boolean collected,
+            @Parameter(description = "Include archived parcels") @RequestParam(defaultValue = "false") boolean history,
+            @Parameter(description = "Gzip-encode the response") @RequestParam(defaultValue = "false") boolean gzip) {
+        return NdjsonResponses.stream("parcels", gzip,
+                out -> exportService.exportParcels(from, to, collected, history, gzip, out));
+    }
+}
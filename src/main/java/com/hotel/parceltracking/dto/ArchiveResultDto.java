@@ -0,0 +1,21 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of an archive run: how many collected parcels and departed guests were moved
+ * to the history tables.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveResultDto {
+    
+    private LocalDateTime cutoff;
+    private int archivedParcels;
+    private int archivedGuests;
+}
@@ -0,0 +1,45 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list.
+ * Pass {@code nextCursor} back as the {@code after} parameter to fetch the following page.
+ * @param <T> the item type
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    
+    private List<T> items;
+    private boolean hasNext;
+    private Long nextCursor;
+    
+    // Factory method deriving the next cursor from the ID of the last item
+    public static <T> CursorPageDto<T> of(List<T> items, boolean hasNext, Function<T, Long> idExtractor) {
+        Long nextCursor = hasNext && !items.isEmpty() ? idExtractor.apply(items.get(items.size() - 1)) : null;
+        return new CursorPageDto<>(items, hasNext, nextCursor);
+    }
+    
+    /**
+     * Merges two pages fetched after the same cursor, each ordered by ID, into one page of at most
+     * {@code size} items. Used to read active and archived records as one list.
+     */
+    public static <T> CursorPageDto<T> merge(List<T> first, boolean firstHasNext, List<T> second,
+                                             boolean secondHasNext, int size, Function<T, Long> idExtractor) {
+        List<T> merged = new ArrayList<>(first.size() + second.size());
+        merged.addAll(first);
+        merged.addAll(second);
+        merged.sort(Comparator.comparing(idExtractor));
+        boolean hasNext = merged.size() > size || firstHasNext || secondHasNext;
+        return of(merged.size() > size ? List.copyOf(merged.subList(0, size)) : merged, hasNext, idExtractor);
+    }
+}
@@ -0,0 +1,26 @@
+package com.hotel.parceltracking.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request body for bulk check-out, e.g. the morning's departures.
+ * Guests may be given by ID, by room number, or both.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCheckOutBatchRequestDto {
+    
+    @Size(max = 1000, message = "A batch may contain at most 1000 guest IDs")
+    private List<@NotNull Long> guestIds;
+    
+    @Size(max = 1000, message = "A batch may contain at most 1000 room numbers")
+    private List<@NotBlank String> roomNumbers;
+}
@@ -0,0 +1,21 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response for bulk check-out.
+ * Reports the outcome of every requested guest ID and then every requested room number, in request order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCheckOutBatchResultDto {
+    
+    private int checkedOut;
+    private int rejected;
+    private List<GuestCheckOutItemResultDto> results;
+}
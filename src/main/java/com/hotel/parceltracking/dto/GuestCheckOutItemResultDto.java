@@ -0,0 +1,35 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a single guest within a bulk check-out request.
+ * Either carries the checked-out guest and the parcels they left uncollected,
+ * or the reason the check-out was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCheckOutItemResultDto {
+    
+    private Long guestId;
+    private String roomNumber;
+    private boolean success;
+    private GuestDto guest;
+    private List<ParcelDto> uncollectedParcels;
+    private String error;
+    
+    // Factory method for a checked-out guest
+    public static GuestCheckOutItemResultDto checkedOut(GuestDto guest, List<ParcelDto> uncollectedParcels) {
+        return new GuestCheckOutItemResultDto(guest.getId(), guest.getRoomNumber(), true, guest, uncollectedParcels, null);
+    }
+    
+    // Factory method for a rejected check-out
+    public static GuestCheckOutItemResultDto rejected(Long guestId, String roomNumber, String error) {
+        return new GuestCheckOutItemResultDto(guestId, roomNumber, false, null, null, error);
+    }
+}
@@ -38,6 +38,16 @@ public class GuestDto {
         this.checkedIn = false;
     }
     
+    // Constructor for JPQL constructor-expression projections (parcels are attached separately)
+    public GuestDto(Long id, String name, String roomNumber, LocalDateTime checkInTime, LocalDateTime checkOutTime) {
+        this.id = id;
+        this.name = name;
+        this.roomNumber = roomNumber;
+        this.checkInTime = checkInTime;
+        this.checkOutTime = checkOutTime;
+        this.checkedIn = checkOutTime == null;
+    }
+    
     // Factory method for creating response DTOs
     public static GuestDto of(Long id, String name, String roomNumber, 
                              LocalDateTime checkInTime, LocalDateTime checkOutTime, 
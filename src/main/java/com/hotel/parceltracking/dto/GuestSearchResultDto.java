@@ -0,0 +1,23 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A guest matching a name search, with how well the name matched.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestSearchResultDto {
+    
+    private Long guestId;
+    private String name;
+    private String roomNumber;
+    private boolean checkedIn;
+    // The name contains the query as typed, ignoring case, accents and punctuation
+    private boolean substringMatch;
+    // Trigram similarity of the name and the query, from 0 to 1
+    private double score;
+}
@@ -0,0 +1,19 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of parcels that arrived within one clock hour.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlyArrivalsDto {
+    
+    private LocalDateTime hour;
+    private long arrivals;
+}
@@ -0,0 +1,36 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A parcel or guest lifecycle event.
+ * Published by the services as an application event and streamed to dashboards
+ * once the transaction that caused it has committed.
+ * Carries the parcel for parcel events and the guest for guest events.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LifecycleEventDto {
+    
+    // Assigned by the broadcaster; also the SSE event ID used for Last-Event-ID resume
+    private long id;
+    private LifecycleEventType type;
+    private LocalDateTime occurredAt;
+    private ParcelDto parcel;
+    private GuestDto guest;
+    
+    // Factory method for parcel events
+    public static LifecycleEventDto ofParcel(LifecycleEventType type, ParcelDto parcel) {
+        return new LifecycleEventDto(0, type, LocalDateTime.now(), parcel, null);
+    }
+    
+    // Factory method for guest events
+    public static LifecycleEventDto ofGuest(LifecycleEventType type, GuestDto guest) {
+        return new LifecycleEventDto(0, type, LocalDateTime.now(), null, guest);
+    }
+}
@@ -0,0 +1,12 @@
+package com.hotel.parceltracking.dto;
+
+/**
+ * Types of parcel and guest lifecycle events pushed to front-desk dashboards.
+ */
+public enum LifecycleEventType {
+    PARCEL_ACCEPTED,
+    PARCEL_COLLECTED,
+    GUEST_CHECKED_IN,
+    GUEST_CHECKED_OUT,
+    PARCEL_OVERDUE
+}
@@ -0,0 +1,22 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An uncollected parcel flagged as overdue, with why and when it was flagged.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueParcelDto {
+    
+    private ParcelDto parcel;
+    private OverdueReason reason;
+    // Arrival time plus the collection SLA
+    private LocalDateTime deadline;
+    private LocalDateTime flaggedAt;
+}
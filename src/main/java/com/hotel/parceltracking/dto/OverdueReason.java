@@ -0,0 +1,11 @@
+package com.hotel.parceltracking.dto;
+
+/**
+ * Why a parcel was flagged as overdue.
+ */
+public enum OverdueReason {
+    // Uncollected longer than the collection SLA after arrival
+    SLA_EXCEEDED,
+    // Still uncollected when its guest checked out
+    GUEST_CHECKED_OUT
+}
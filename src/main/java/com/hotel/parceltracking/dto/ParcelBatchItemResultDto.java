@@ -0,0 +1,31 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single parcel within a bulk intake request.
+ * Either carries the accepted parcel or the reason it was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelBatchItemResultDto {
+    
+    private int index;
+    private String trackingNumber;
+    private boolean success;
+    private ParcelDto parcel;
+    private String error;
+    
+    // Factory method for an accepted parcel
+    public static ParcelBatchItemResultDto accepted(int index, ParcelDto parcel) {
+        return new ParcelBatchItemResultDto(index, parcel.getTrackingNumber(), true, parcel, null);
+    }
+    
+    // Factory method for a rejected parcel
+    public static ParcelBatchItemResultDto rejected(int index, String trackingNumber, String error) {
+        return new ParcelBatchItemResultDto(index, trackingNumber, false, null, error);
+    }
+}
@@ -0,0 +1,25 @@
+package com.hotel.parceltracking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request body for bulk parcel intake.
+ * Wraps the parcels of a single courier drop-off.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelBatchRequestDto {
+    
+    @NotEmpty(message = "At least one parcel is required")
+    @Size(max = 1000, message = "A batch may contain at most 1000 parcels")
+    @Valid
+    private List<ParcelDto> parcels;
+}
@@ -0,0 +1,21 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response for bulk parcel intake.
+ * Reports the outcome of every submitted parcel, in request order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelBatchResultDto {
+    
+    private int accepted;
+    private int rejected;
+    private List<ParcelBatchItemResultDto> results;
+}
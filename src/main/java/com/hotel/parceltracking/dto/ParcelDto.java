@@ -64,4 +64,10 @@ public class ParcelDto {
         dto.setGuestRoomNumber(guestRoomNumber);
         return dto;
     }
-} 
\ No newline at end of file
+    
+    // Copy for handing out a cached instance, so callers cannot change it for each other
+    public ParcelDto copy() {
+        return of(id, trackingNumber, sender, description, arrivalTime, collectionTime, collected,
+                guestId, guestName, guestRoomNumber);
+    }
+}
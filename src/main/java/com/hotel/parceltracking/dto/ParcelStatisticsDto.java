@@ -0,0 +1,26 @@
+package com.hotel.parceltracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live parcel statistics: uncollected parcels per room, dwell time from arrival to
+ * collection (active and archived parcels), and arrivals per hour over the last day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelStatisticsDto {
+    
+    private long totalUncollected;
+    private Map<String, Long> uncollectedByRoom;
+    private long collectedCount;
+    private Double averageDwellSeconds;
+    private Double p95DwellSeconds;
+    // Oldest hour first, ending with the current hour
+    private List<HourlyArrivalsDto> arrivalsPerHour;
+}
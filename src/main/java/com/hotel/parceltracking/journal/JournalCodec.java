@@ -0,0 +1,168 @@
+package com.hotel.parceltracking.journal;
+
+import com.hotel.parceltracking.dto.LifecycleEventType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of journal segments.
+ * A segment starts with a magic number and a format version, followed by records of
+ * {@code [int payload length][int CRC32C of the payload][payload]}. Segments are created
+ * zero-filled, so a zero length marks the end of the written records; a record whose
+ * checksum does not match (a write torn by a crash) also ends the segment.
+ * The payload holds the sequence, type, time, parcel ID, guest ID, tracking number,
+ * guest name and room number; absent IDs are {@link Long#MIN_VALUE} and absent strings
+ * have length -1.
+ */
+final class JournalCodec {
+
+    static final int MAGIC = 0x504A4E4C;
+    static final int FORMAT_VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final LifecycleEventType[] TYPES = LifecycleEventType.values();
+    private static final long ABSENT_ID = Long.MIN_VALUE;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Gets the file name of the segment whose first record has the given sequence.
+     * Zero-padded, so segment files sort by name in journal order.
+     */
+    static String segmentFileName(long firstSequence) {
+        return String.format("%020d%s", firstSequence, SEGMENT_SUFFIX);
+    }
+
+    static void writeSegmentHeader(ByteBuffer segment) {
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, FORMAT_VERSION);
+        segment.position(SEGMENT_HEADER_SIZE);
+    }
+
+    /**
+     * Checks the segment header and positions the buffer at the first record.
+     * @throws IllegalStateException if the file is not a journal segment of this format
+     */
+    static void readSegmentHeader(ByteBuffer segment, Path file) {
+        if (segment.limit() < SEGMENT_HEADER_SIZE || segment.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a journal segment: " + file);
+        }
+        if (segment.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported journal format " + segment.getInt(4) + " in " + file);
+        }
+        segment.position(SEGMENT_HEADER_SIZE);
+    }
+
+    /**
+     * Encodes a record's payload.
+     */
+    static byte[] encode(JournalRecord record) {
+        byte[] trackingNumber = utf8(record.getTrackingNumber());
+        byte[] guestName = utf8(record.getGuestName());
+        byte[] roomNumber = utf8(record.getRoomNumber());
+        ByteBuffer payload = ByteBuffer.allocate(8 + 1 + 8 + 4 + 8 + 8
+                + stringSize(trackingNumber) + stringSize(guestName) + stringSize(roomNumber));
+        payload.putLong(record.getSequence());
+        payload.put((byte) record.getType().ordinal());
+        payload.putLong(record.getOccurredAt().toEpochSecond(ZoneOffset.UTC));
+        payload.putInt(record.getOccurredAt().getNano());
+        payload.putLong(record.getParcelId() == null ? ABSENT_ID : record.getParcelId());
+        payload.putLong(record.getGuestId() == null ? ABSENT_ID : record.getGuestId());
+        putString(payload, trackingNumber);
+        putString(payload, guestName);
+        putString(payload, roomNumber);
+        return payload.array();
+    }
+
+    /**
+     * Gets the number of segment bytes a record with this payload takes.
+     */
+    static int recordSize(byte[] payload) {
+        return RECORD_HEADER_SIZE + payload.length;
+    }
+
+    /**
+     * Writes a record at the buffer's position and advances past it.
+     * The length goes in last, so a concurrent reader never sees a length without its payload.
+     */
+    static void write(ByteBuffer segment, byte[] payload) {
+        int start = segment.position();
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        segment.putInt(start + 4, (int) crc.getValue());
+        segment.put(start + RECORD_HEADER_SIZE, payload);
+        segment.putInt(start, payload.length);
+        segment.position(start + RECORD_HEADER_SIZE + payload.length);
+    }
+
+    /**
+     * Reads the record at the buffer's position and advances past it.
+     * @return the record, or null at the end of the written records (a zero length,
+     *         or a torn or corrupt record), leaving the position unchanged
+     */
+    static JournalRecord read(ByteBuffer segment) {
+        int start = segment.position();
+        if (segment.limit() - start < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        int length = segment.getInt(start);
+        if (length <= 0 || length > segment.limit() - start - RECORD_HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer payload = segment.slice(start + RECORD_HEADER_SIZE, length);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != segment.getInt(start + 4)) {
+            return null;
+        }
+        JournalRecord record = decode(payload);
+        segment.position(start + RECORD_HEADER_SIZE + length);
+        return record;
+    }
+
+    private static JournalRecord decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        LifecycleEventType type = TYPES[payload.get()];
+        LocalDateTime occurredAt = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        long parcelId = payload.getLong();
+        long guestId = payload.getLong();
+        return new JournalRecord(sequence, type, occurredAt,
+                parcelId == ABSENT_ID ? null : parcelId, getString(payload),
+                guestId == ABSENT_ID ? null : guestId, getString(payload), getString(payload));
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
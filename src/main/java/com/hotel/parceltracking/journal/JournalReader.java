@@ -0,0 +1,147 @@
+package com.hotel.parceltracking.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads a lifecycle journal directory without the database or a running application.
+ * Segments are memory-mapped read-only and replayed in sequence order. Reading while
+ * {@link LifecycleJournal} appends is safe: a reader stops at the last complete record.
+ * <p>
+ * Segments other than the last are full and never change again, so the first lookup by
+ * tracking number remembers which tracking numbers each of them holds. Later lookups only
+ * read the segments holding the tracking number, plus the last one. Keep one reader per
+ * directory to benefit from it.
+ */
+public class JournalReader {
+
+    private final Path directory;
+    private final Map<Path, Set<String>> trackingNumbersBySealedSegment = new ConcurrentHashMap<>();
+
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Lists the segment files in journal order.
+     * @return segment paths, oldest first; empty if the directory does not exist
+     */
+    public List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(JournalCodec.SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal segments in " + directory, e);
+        }
+    }
+
+    /**
+     * Replays every record in sequence order, e.g. to rebuild state held in memory.
+     * @param consumer receives each record
+     */
+    public void replay(Consumer<JournalRecord> consumer) {
+        replayFrom(1, consumer);
+    }
+
+    /**
+     * Replays the records from a sequence on, skipping the segments that end before it.
+     * @param fromSequence the first sequence to replay
+     * @param consumer receives each record
+     */
+    public void replayFrom(long fromSequence, Consumer<JournalRecord> consumer) {
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            MappedByteBuffer segment = map(segments.get(i));
+            JournalRecord record;
+            while ((record = JournalCodec.read(segment)) != null) {
+                if (record.getSequence() >= fromSequence) {
+                    consumer.accept(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds everything that happened to parcels with a tracking number, oldest first.
+     * A tracking number can belong to several parcels over time once old ones are archived.
+     * @param trackingNumber the tracking number
+     * @return the parcel's records in sequence order
+     */
+    public List<JournalRecord> findByTrackingNumber(String trackingNumber) {
+        List<JournalRecord> records = new ArrayList<>();
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            Path segmentFile = segments.get(i);
+            boolean sealed = i + 1 < segments.size();
+            Set<String> indexed = sealed ? trackingNumbersBySealedSegment.get(segmentFile) : null;
+            if (indexed != null && !indexed.contains(trackingNumber)) {
+                continue;
+            }
+            Set<String> trackingNumbers = sealed && indexed == null ? new HashSet<>() : null;
+            MappedByteBuffer segment = map(segmentFile);
+            JournalRecord record;
+            while ((record = JournalCodec.read(segment)) != null) {
+                if (trackingNumbers != null && record.getTrackingNumber() != null) {
+                    trackingNumbers.add(record.getTrackingNumber());
+                }
+                if (trackingNumber.equals(record.getTrackingNumber())) {
+                    records.add(record);
+                }
+            }
+            if (trackingNumbers != null) {
+                trackingNumbersBySealedSegment.put(segmentFile, trackingNumbers);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Gets the number of sealed segments whose tracking numbers are indexed.
+     */
+    int indexedSegments() {
+        return trackingNumbersBySealedSegment.size();
+    }
+
+    /**
+     * Gets the sequence of the first record in a segment, from its file name.
+     */
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - JournalCodec.SEGMENT_SUFFIX.length()));
+    }
+
+    private static MappedByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (segment.limit() < JournalCodec.SEGMENT_HEADER_SIZE || segment.getInt(0) == 0) {
+                // Just created by the writer, header not written yet: no records
+                segment.position(segment.limit());
+                return segment;
+            }
+            JournalCodec.readSegmentHeader(segment, file);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal segment " + file, e);
+        }
+    }
+}
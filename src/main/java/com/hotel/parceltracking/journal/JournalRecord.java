@@ -0,0 +1,41 @@
+package com.hotel.parceltracking.journal;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One lifecycle event as stored in the journal.
+ * Keeps the identifying fields of the parcel or guest, enough to answer what happened
+ * to a tracking number or a room without the database.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalRecord {
+
+    // Position in the journal, starting at 1 and without gaps
+    private long sequence;
+    private LifecycleEventType type;
+    private LocalDateTime occurredAt;
+    private Long parcelId;
+    private String trackingNumber;
+    private Long guestId;
+    private String guestName;
+    private String roomNumber;
+
+    // Factory method taking the fields to journal from a lifecycle event
+    public static JournalRecord of(long sequence, LifecycleEventDto event) {
+        if (event.getParcel() != null) {
+            return new JournalRecord(sequence, event.getType(), event.getOccurredAt(),
+                    event.getParcel().getId(), event.getParcel().getTrackingNumber(),
+                    event.getParcel().getGuestId(), event.getParcel().getGuestName(), event.getParcel().getGuestRoomNumber());
+        }
+        return new JournalRecord(sequence, event.getType(), event.getOccurredAt(), null, null,
+                event.getGuest().getId(), event.getGuest().getName(), event.getGuest().getRoomNumber());
+    }
+}
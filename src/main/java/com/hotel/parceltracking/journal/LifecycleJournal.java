@@ -0,0 +1,332 @@
+package com.hotel.parceltracking.journal;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only audit journal of parcel and guest lifecycle events, kept outside the database.
+ * Committed events are appended to a memory-mapped segment file, so an append is a memory copy
+ * rather than another row written in the business transaction. When a segment is full the
+ * journal rolls over to a new one, named after the sequence of its first record.
+ * <p>
+ * A background thread forces appended records to disk (group commit): one sync covers every
+ * record appended since the previous one. By default ({@code await-sync}) an append waits for
+ * the sync covering it, and the syncer starts a sync as soon as records are pending. With
+ * {@code await-sync} off records are only synced every {@code sync-interval}, so a crash can
+ * lose the journal records of transactions committed within that window.
+ * On startup the journal continues the last segment after its last complete record, discarding
+ * a record torn by a crash. Read it with {@link JournalReader}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "parcel-tracking.journal", name = "enabled", havingValue = "true")
+public class LifecycleJournal {
+
+    private static final String LOCK_FILE = "journal.lock";
+
+    private final Path directory;
+    private final JournalReader reader;
+    private final int segmentSize;
+    private final Duration syncInterval;
+    private final boolean awaitSync;
+    private final Counter appends;
+    private final Counter syncs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private MappedByteBuffer segment;
+    private long lastSequence;
+    private long syncedSequence;
+    private boolean running;
+
+    private FileChannel lockChannel;
+    private FileLock directoryLock;
+    private Thread syncer;
+
+    @Autowired
+    public LifecycleJournal(@Value("${parcel-tracking.journal.dir}") String directory,
+                            @Value("${parcel-tracking.journal.segment-size:64MB}") DataSize segmentSize,
+                            @Value("${parcel-tracking.journal.sync-interval:10ms}") Duration syncInterval,
+                            @Value("${parcel-tracking.journal.await-sync:true}") boolean awaitSync,
+                            MeterRegistry meterRegistry) {
+        this.directory = Path.of(directory);
+        this.reader = new JournalReader(this.directory);
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.syncInterval = syncInterval;
+        this.awaitSync = awaitSync;
+
+        this.appends = Counter.builder("parcel.tracking.journal.appends")
+                .description("Lifecycle events appended to the journal")
+                .register(meterRegistry);
+        this.syncs = Counter.builder("parcel.tracking.journal.syncs")
+                .description("Journal syncs to disk, each covering all records appended before it")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Locks the journal directory, opens the last segment (or creates the first) and starts the syncer.
+     * @throws IllegalStateException if another journal has the directory open
+     */
+    @PostConstruct
+    public void open() {
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                directoryLock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                directoryLock = null;
+            }
+            if (directoryLock == null) {
+                lockChannel.close();
+                throw new IllegalStateException("Journal directory is in use: " + directory);
+            }
+
+            List<Path> segments = reader.segments();
+            if (segments.isEmpty()) {
+                segment = createSegment(1, segmentSize);
+                lastSequence = 0;
+            } else {
+                recover(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+        syncedSequence = lastSequence;
+        running = true;
+        syncer = Thread.ofPlatform().name("lifecycle-journal-sync").daemon().start(this::syncLoop);
+    }
+
+    /**
+     * Journals a lifecycle event once its transaction has committed.
+     * Runs without a transaction when the event was published outside one.
+     * @param event the lifecycle event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLifecycleEvent(LifecycleEventDto event) {
+        append(event);
+    }
+
+    /**
+     * Appends a lifecycle event, waiting for it to be synced to disk if {@code await-sync} is set.
+     * @param event the lifecycle event
+     * @return the record's sequence
+     */
+    public long append(LifecycleEventDto event) {
+        long sequence;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            sequence = lastSequence + 1;
+            byte[] payload = JournalCodec.encode(JournalRecord.of(sequence, event));
+            if (segment.remaining() < JournalCodec.recordSize(payload)) {
+                rollOver(sequence, JournalCodec.recordSize(payload));
+            }
+            JournalCodec.write(segment, payload);
+            lastSequence = sequence;
+        } finally {
+            lock.unlock();
+        }
+        appends.increment();
+
+        if (awaitSync) {
+            LockSupport.unpark(syncer);
+            lock.lock();
+            try {
+                while (syncedSequence < sequence && running) {
+                    synced.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Forces every record appended so far to disk.
+     */
+    public void sync() {
+        MappedByteBuffer current;
+        long upTo;
+        lock.lock();
+        try {
+            current = segment;
+            upTo = lastSequence;
+            if (upTo == syncedSequence) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Outside the lock, so appends continue while the disk catches up
+        current.force();
+        markSynced(upTo);
+    }
+
+    /**
+     * Gets the reader over this journal's directory, shared so its segment index is kept.
+     * @return the reader
+     */
+    public JournalReader reader() {
+        return reader;
+    }
+
+    /**
+     * Gets the journal's position and sync statistics.
+     * @return statistics by name
+     */
+    public Map<String, Object> statistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            statistics.put("directory", directory.toAbsolutePath().toString());
+            statistics.put("lastSequence", lastSequence);
+            statistics.put("syncedSequence", syncedSequence);
+        } finally {
+            lock.unlock();
+        }
+        statistics.put("segments", reader().segments().size());
+        statistics.put("appends", (long) appends.count());
+        statistics.put("syncs", (long) syncs.count());
+        return statistics;
+    }
+
+    /**
+     * Stops the syncer, syncs the remaining records and releases the directory.
+     */
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        LockSupport.unpark(syncer);
+        try {
+            syncer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        try {
+            directoryLock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot release journal directory " + directory, e);
+        }
+    }
+
+    private void syncLoop() {
+        while (isRunning()) {
+            LockSupport.parkNanos(syncInterval.toNanos());
+            sync();
+        }
+    }
+
+    private boolean isRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void markSynced(long upTo) {
+        lock.lock();
+        try {
+            if (upTo > syncedSequence) {
+                syncedSequence = upTo;
+            }
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        syncs.increment();
+    }
+
+    /**
+     * Syncs and leaves the full segment, then starts a new one with the next sequence.
+     * Called with the lock held.
+     */
+    private void rollOver(long nextSequence, int recordSize) {
+        segment.force();
+        markSynced(lastSequence);
+        segment = createSegment(nextSequence, Math.max(segmentSize, JournalCodec.SEGMENT_HEADER_SIZE + recordSize));
+    }
+
+    /**
+     * Positions the last segment after its last complete record and zeroes anything after it,
+     * so a record torn by a crash is not mistaken for one later.
+     */
+    private void recover(Path last) throws IOException {
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        }
+        if (segment.getInt(0) == 0) {
+            // Crashed before the header of a new segment was written
+            JournalCodec.writeSegmentHeader(segment);
+        } else {
+            JournalCodec.readSegmentHeader(segment, last);
+        }
+
+        lastSequence = JournalReader.firstSequence(last) - 1;
+        JournalRecord record;
+        while ((record = JournalCodec.read(segment)) != null) {
+            lastSequence = record.getSequence();
+        }
+        if (segment.remaining() >= JournalCodec.RECORD_HEADER_SIZE && segment.getInt(segment.position()) != 0) {
+            for (int i = segment.position(); i < segment.limit(); i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+    }
+
+    private MappedByteBuffer createSegment(long firstSequence, int size) {
+        Path file = directory.resolve(JournalCodec.segmentFileName(firstSequence));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file, zero-filled
+            MappedByteBuffer created = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            JournalCodec.writeSegmentHeader(created);
+            return created;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + file, e);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -17,7 +18,15 @@ import java.util.List;
  * Tracks guest check-in/check-out status and associated parcels.
  */
 @Entity
-@Table(name = "guests")
+@Table(name = "guests", uniqueConstraints = {
+        // One checked-in guest per room; checked-out guests hold NULL, which never conflicts
+        @UniqueConstraint(name = "uk_guests_active_room", columnNames = "active_room_number")
+}, indexes = {
+        // Room status / check-in conflict check: room_number = ? AND check_out_time IS NULL (covering)
+        @Index(name = "idx_guests_room_check_out", columnList = "room_number, check_out_time"),
+        // Checked-in guest listing: check_out_time IS NULL
+        @Index(name = "idx_guests_check_out", columnList = "check_out_time, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -43,7 +52,18 @@ public class Guest {
     @Column(name = "check_out_time")
     private LocalDateTime checkOutTime;
     
+    // The room number while checked in, NULL once checked out; backs uk_guests_active_room
+    @Column(name = "active_room_number")
+    private String activeRoomNumber;
+    
+    // Optimistic locking: a concurrent update of the same guest fails at flush instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    // Batch-loaded so a page of guests initialises all their parcels in one select
     @OneToMany(mappedBy = "guest", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<Parcel> parcels = new ArrayList<>();
     
     // Custom constructor
@@ -51,6 +71,7 @@ public class Guest {
         this.name = name;
         this.roomNumber = roomNumber;
         this.checkInTime = checkInTime;
+        this.activeRoomNumber = roomNumber;
     }
     
     // Business methods
@@ -64,10 +85,11 @@ public class Guest {
     }
     
     /**
-     * Checks out the guest by setting the check-out time.
+     * Checks out the guest by setting the check-out time and releasing the room.
      */
     public void checkOut() {
         this.checkOutTime = LocalDateTime.now();
+        this.activeRoomNumber = null;
     }
     
     /**
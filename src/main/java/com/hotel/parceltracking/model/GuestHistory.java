@@ -0,0 +1,41 @@
+package com.hotel.parceltracking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing an archived (departed) guest.
+ * Checked-out guests whose parcels have all been archived are moved here from the guests
+ * table by the archiver, keeping their ID, so the guests table only holds current and
+ * recently departed guests.
+ */
+@Entity
+@Table(name = "guests_history")
+@Getter
+@Setter
+@NoArgsConstructor
+public class GuestHistory {
+    
+    // The ID the guest had in the guests table
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(name = "room_number", nullable = false)
+    private String roomNumber;
+    
+    @Column(name = "check_in_time", nullable = false)
+    private LocalDateTime checkInTime;
+    
+    @Column(name = "check_out_time", nullable = false)
+    private LocalDateTime checkOutTime;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
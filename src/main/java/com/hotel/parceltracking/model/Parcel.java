@@ -15,15 +15,22 @@ import java.time.LocalDateTime;
  * Tracks parcel details, arrival time, and collection status.
  */
 @Entity
-@Table(name = "parcels")
+@Table(name = "parcels", indexes = {
+        // Uncollected parcels of a guest (also serves the guest_id foreign key and room lookups joined via guests)
+        @Index(name = "idx_parcels_guest_collected", columnList = "guest_id, is_collected"),
+        // Uncollected parcel listing and its keyset pagination: is_collected = false AND id > ? ORDER BY id
+        @Index(name = "idx_parcels_collected_id", columnList = "is_collected, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @ToString(exclude = "guest") // Exclude to avoid circular reference
 public class Parcel {
     
+    // Sequence (not IDENTITY) ids so Hibernate can group inserts into JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parcel_seq")
+    @SequenceGenerator(name = "parcel_seq", sequenceName = "parcels_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Tracking number is required")
@@ -47,6 +54,11 @@ public class Parcel {
     @Column(name = "is_collected", nullable = false)
     private boolean collected = false;
     
+    // Optimistic locking: a concurrent update of the same parcel fails at flush instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "guest_id", nullable = false)
     @NotNull(message = "Guest is required")
@@ -0,0 +1,58 @@
+package com.hotel.parceltracking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing an archived (collected) parcel.
+ * Collected parcels are moved here from the parcels table by the archiver, keeping their ID,
+ * so the parcels table only holds recent and uncollected parcels. The guest's name and room
+ * are copied in, since the guest may be archived or gone from the guests table.
+ */
+@Entity
+@Table(name = "parcels_history", indexes = {
+        // Archived parcels of a guest, for guest views that include history
+        @Index(name = "idx_parcels_history_guest", columnList = "guest_id"),
+        // Lookup by tracking number, which is only unique among active parcels
+        @Index(name = "idx_parcels_history_tracking", columnList = "tracking_number")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ParcelHistory {
+    
+    // The ID the parcel had in the parcels table
+    @Id
+    private Long id;
+    
+    @Column(name = "tracking_number", nullable = false)
+    private String trackingNumber;
+    
+    @Column(nullable = false)
+    private String sender;
+    
+    @Column(name = "description")
+    private String description;
+    
+    @Column(name = "arrival_time", nullable = false)
+    private LocalDateTime arrivalTime;
+    
+    @Column(name = "collection_time", nullable = false)
+    private LocalDateTime collectionTime;
+    
+    @Column(name = "guest_id", nullable = false)
+    private Long guestId;
+    
+    @Column(name = "guest_name", nullable = false)
+    private String guestName;
+    
+    @Column(name = "guest_room_number", nullable = false)
+    private String guestRoomNumber;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
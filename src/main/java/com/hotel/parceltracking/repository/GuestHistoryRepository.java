@@ -0,0 +1,81 @@
+package com.hotel.parceltracking.repository;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.model.GuestHistory;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Repository interface for GuestHistory entity.
+ * Provides access to archived guests, read as the same GuestDto projection as active guests.
+ */
+@Repository
+public interface GuestHistoryRepository extends JpaRepository<GuestHistory, Long> {
+    
+    /**
+     * Constructor-expression select shared by the GuestDto projection queries.
+     */
+    String GUEST_HISTORY_DTO_SELECT = "SELECT new com.hotel.parceltracking.dto.GuestDto("
+            + "g.id, g.name, g.roomNumber, g.checkInTime, g.checkOutTime) "
+            + "FROM GuestHistory g ";
+    
+    /**
+     * Copies guests from the guests table in one statement.
+     * @param guestIds the IDs of the guests to copy
+     * @param archivedAt the archive time to record
+     * @return number of copied guests
+     */
+    @Modifying
+    @Query("INSERT INTO GuestHistory (id, name, roomNumber, checkInTime, checkOutTime, archivedAt) "
+            + "SELECT g.id, g.name, g.roomNumber, g.checkInTime, g.checkOutTime, :archivedAt "
+            + "FROM Guest g WHERE g.id IN :guestIds")
+    int copyFromGuests(@Param("guestIds") Collection<Long> guestIds, @Param("archivedAt") LocalDateTime archivedAt);
+    
+    /**
+     * Finds the next page of archived guest DTOs after the given ID (keyset pagination).
+     * Parcels are not included; attach them with a separate query.
+     * @param afterId only guests with a greater ID are returned
+     * @param pageable the page size (the page number is always 0)
+     * @return slice of archived guest DTOs ordered by ID
+     */
+    @Query(GUEST_HISTORY_DTO_SELECT + "WHERE g.id > :afterId ORDER BY g.id")
+    Slice<GuestDto> findGuestDtosAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Finds an archived guest DTO by ID.
+     * Parcels are not included; attach them with a separate query.
+     * @param guestId the guest ID
+     * @return Optional containing the archived guest DTO if found
+     */
+    @Query(GUEST_HISTORY_DTO_SELECT + "WHERE g.id = :guestId")
+    Optional<GuestDto> findGuestDtoById(@Param("guestId") Long guestId);
+    
+    /**
+     * Streams archived guest DTOs for export, ordered by ID. Parcels are not included.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @param checkedInFrom only guests who checked in at or after this time, or null
+     * @param checkedInTo only guests who checked in before this time, or null
+     * @return stream of archived guest DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(GUEST_HISTORY_DTO_SELECT
+            + "WHERE (:checkedInFrom IS NULL OR g.checkInTime >= :checkedInFrom) "
+            + "AND (:checkedInTo IS NULL OR g.checkInTime < :checkedInTo) "
+            + "ORDER BY g.id")
+    Stream<GuestDto> streamGuestDtosForExport(@Param("checkedInFrom") LocalDateTime checkedInFrom,
+                                              @Param("checkedInTo") LocalDateTime checkedInTo);
+}
@@ -1,12 +1,25 @@
 package com.hotel.parceltracking.repository;
 
+import com.hotel.parceltracking.dto.GuestDto;
 import com.hotel.parceltracking.model.Guest;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for Guest entity.
@@ -15,6 +28,31 @@ import java.util.Optional;
 @Repository
 public interface GuestRepository extends JpaRepository<Guest, Long> {
     
+    /**
+     * Constructor-expression select shared by the GuestDto projection queries.
+     */
+    String GUEST_DTO_SELECT = "SELECT new com.hotel.parceltracking.dto.GuestDto("
+            + "g.id, g.name, g.roomNumber, g.checkInTime, g.checkOutTime) "
+            + "FROM Guest g ";
+    
+    /**
+     * Projection of a checked-in guest onto the room they occupy.
+     */
+    interface RoomOccupant {
+        String getRoomNumber();
+        Long getId();
+    }
+    
+    /**
+     * Projection of a guest's name, room and stay, e.g. to build the guest name index.
+     */
+    interface GuestName {
+        Long getId();
+        String getName();
+        String getRoomNumber();
+        LocalDateTime getCheckOutTime();
+    }
+    
     /**
      * Finds a guest by room number.
      * @param roomNumber the room number to search for
@@ -22,13 +60,71 @@ public interface GuestRepository extends JpaRepository<Guest, Long> {
      */
     Optional<Guest> findByRoomNumber(String roomNumber);
     
+    /**
+     * Finds the next page of guest DTOs after the given ID (keyset pagination).
+     * Parcels are not included; attach them with a separate query.
+     * @param afterId only guests with a greater ID are returned
+     * @param pageable the page size (the page number is always 0)
+     * @return slice of guest DTOs ordered by ID
+     */
+    @Query(GUEST_DTO_SELECT + "WHERE g.id > :afterId ORDER BY g.id")
+    Slice<GuestDto> findGuestDtosAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Finds DTOs of all guests who are currently checked in.
+     * Parcels are not included; attach them with a separate query.
+     * @return list of checked-in guest DTOs
+     */
+    @Query(GUEST_DTO_SELECT + "WHERE g.checkOutTime IS NULL")
+    List<GuestDto> findCheckedInGuestDtos();
+    
+    /**
+     * Finds a guest DTO by ID.
+     * Parcels are not included; attach them with a separate query.
+     * @param guestId the guest ID
+     * @return Optional containing the guest DTO if found
+     */
+    @Query(GUEST_DTO_SELECT + "WHERE g.id = :guestId")
+    Optional<GuestDto> findGuestDtoById(@Param("guestId") Long guestId);
+    
+    /**
+     * Finds guest DTOs by ID.
+     * Parcels are not included; attach them with a separate query.
+     * @param guestIds the guest IDs
+     * @return list of the guest DTOs that exist
+     */
+    @Query(GUEST_DTO_SELECT + "WHERE g.id IN :guestIds")
+    List<GuestDto> findGuestDtosByIds(@Param("guestIds") Collection<Long> guestIds);
+    
+    /**
+     * Checks out the given guests with one set-based update, releasing their rooms.
+     * Guests who are already checked out are left unchanged. Bumps the version so concurrent
+     * entity updates of the same guests fail their optimistic lock check.
+     * @param guestIds the guest IDs
+     * @param checkOutTime the check-out time to set
+     * @return number of guests checked out
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Guest g SET g.checkOutTime = :checkOutTime, g.activeRoomNumber = NULL, g.version = g.version + 1 "
+            + "WHERE g.id IN :guestIds AND g.checkOutTime IS NULL")
+    int checkOutGuests(@Param("guestIds") Collection<Long> guestIds, @Param("checkOutTime") LocalDateTime checkOutTime);
+    
     /**
      * Finds all guests who are currently checked in (check-out time is null).
+     * Their parcels are fetched in the same select.
      * @return list of checked-in guests
      */
+    @EntityGraph(attributePaths = "parcels")
     @Query("SELECT g FROM Guest g WHERE g.checkOutTime IS NULL")
     List<Guest> findAllCheckedInGuests();
     
+    /**
+     * Finds the room number and ID of every checked-in guest, without loading the entities.
+     * @return list of room occupants
+     */
+    @Query("SELECT g.roomNumber AS roomNumber, g.id AS id FROM Guest g WHERE g.checkOutTime IS NULL")
+    List<RoomOccupant> findRoomOccupants();
+    
     /**
      * Finds all guests who have checked out (check-out time is not null).
      * @return list of checked-out guests
@@ -43,6 +139,15 @@ public interface GuestRepository extends JpaRepository<Guest, Long> {
      */
     List<Guest> findByNameContainingIgnoreCase(String name);
     
+    /**
+     * Streams the name, room and check-out time of every guest, e.g. to build the guest name index.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return stream of guest names
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT g.id AS id, g.name AS name, g.roomNumber AS roomNumber, g.checkOutTime AS checkOutTime FROM Guest g")
+    Stream<GuestName> streamGuestNames();
+    
     /**
      * Checks if a guest with the given room number is currently checked in.
      * @param roomNumber the room number to check
@@ -50,4 +155,44 @@ public interface GuestRepository extends JpaRepository<Guest, Long> {
      */
     @Query("SELECT COUNT(g) > 0 FROM Guest g WHERE g.roomNumber = :roomNumber AND g.checkOutTime IS NULL")
     boolean isGuestCheckedInByRoomNumber(String roomNumber);
-} 
\ No newline at end of file
+    
+    /**
+     * Streams guest DTOs for export, ordered by ID. Parcels are not included.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @param checkedInFrom only guests who checked in at or after this time, or null
+     * @param checkedInTo only guests who checked in before this time, or null
+     * @param checkedIn only checked-in (true) or checked-out (false) guests, or null for both
+     * @return stream of guest DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(GUEST_DTO_SELECT
+            + "WHERE (:checkedInFrom IS NULL OR g.checkInTime >= :checkedInFrom) "
+            + "AND (:checkedInTo IS NULL OR g.checkInTime < :checkedInTo) "
+            + "AND (:checkedIn IS NULL OR (:checkedIn = true AND g.checkOutTime IS NULL) "
+            + "OR (:checkedIn = false AND g.checkOutTime IS NOT NULL)) "
+            + "ORDER BY g.id")
+    Stream<GuestDto> streamGuestDtosForExport(@Param("checkedInFrom") LocalDateTime checkedInFrom,
+                                              @Param("checkedInTo") LocalDateTime checkedInTo,
+                                              @Param("checkedIn") Boolean checkedIn);
+    
+    /**
+     * Finds the next chunk of guests to archive: checked out before the cutoff and with
+     * no parcels left in the parcels table (uncollected parcels keep their guest active).
+     * @param cutoff only guests who checked out before this time
+     * @param pageable the chunk size (the page number is always 0)
+     * @return guest IDs in ascending order
+     */
+    @Query("SELECT g.id FROM Guest g WHERE g.checkOutTime < :cutoff "
+            + "AND NOT EXISTS (SELECT 1 FROM Parcel p WHERE p.guest = g) ORDER BY g.id")
+    List<Long> findArchivableGuestIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    /**
+     * Deletes guests with one set-based statement, e.g. once they have been archived.
+     * The guests must have no parcels left.
+     * @param guestIds the guest IDs
+     * @return number of deleted guests
+     */
+    @Modifying
+    @Query("DELETE FROM Guest g WHERE g.id IN :guestIds")
+    int deleteGuests(@Param("guestIds") Collection<Long> guestIds);
+}
@@ -0,0 +1,101 @@
+package com.hotel.parceltracking.repository;
+
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.model.ParcelHistory;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Repository interface for ParcelHistory entity.
+ * Provides access to archived parcels, read as the same ParcelDto projection as active parcels.
+ */
+@Repository
+public interface ParcelHistoryRepository extends JpaRepository<ParcelHistory, Long> {
+    
+    /**
+     * Constructor-expression select shared by the ParcelDto projection queries.
+     * Archived parcels are always collected.
+     */
+    String PARCEL_HISTORY_DTO_SELECT = "SELECT new com.hotel.parceltracking.dto.ParcelDto("
+            + "p.id, p.trackingNumber, p.sender, p.description, p.arrivalTime, p.collectionTime, true, "
+            + "p.guestId, p.guestName, p.guestRoomNumber) "
+            + "FROM ParcelHistory p ";
+    
+    /**
+     * Copies parcels from the parcels table, with their guest's name and room, in one statement.
+     * @param parcelIds the IDs of the parcels to copy
+     * @param archivedAt the archive time to record
+     * @return number of copied parcels
+     */
+    @Modifying
+    @Query("INSERT INTO ParcelHistory (id, trackingNumber, sender, description, arrivalTime, collectionTime, "
+            + "guestId, guestName, guestRoomNumber, archivedAt) "
+            + "SELECT p.id, p.trackingNumber, p.sender, p.description, p.arrivalTime, p.collectionTime, "
+            + "g.id, g.name, g.roomNumber, :archivedAt "
+            + "FROM Parcel p JOIN p.guest g WHERE p.id IN :parcelIds")
+    int copyFromParcels(@Param("parcelIds") Collection<Long> parcelIds, @Param("archivedAt") LocalDateTime archivedAt);
+    
+    /**
+     * Finds archived parcel DTOs by tracking number, most recent first.
+     * A tracking number may have been reused after its parcel was archived.
+     * @param trackingNumber the tracking number
+     * @return list of archived parcel DTOs ordered by descending ID
+     */
+    @Query(PARCEL_HISTORY_DTO_SELECT + "WHERE p.trackingNumber = :trackingNumber ORDER BY p.id DESC")
+    List<ParcelDto> findParcelDtosByTrackingNumber(@Param("trackingNumber") String trackingNumber);
+    
+    /**
+     * Finds the next page of archived parcel DTOs after the given ID (keyset pagination).
+     * @param afterId only parcels with a greater ID are returned
+     * @param pageable the page size (the page number is always 0)
+     * @return slice of archived parcel DTOs ordered by ID
+     */
+    @Query(PARCEL_HISTORY_DTO_SELECT + "WHERE p.id > :afterId ORDER BY p.id")
+    Slice<ParcelDto> findParcelDtosAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Finds archived parcel DTOs for a set of guests.
+     * @param guestIds the guest IDs
+     * @return list of archived parcel DTOs ordered by ID
+     */
+    @Query(PARCEL_HISTORY_DTO_SELECT + "WHERE p.guestId IN :guestIds ORDER BY p.id")
+    List<ParcelDto> findParcelDtosByGuestIds(@Param("guestIds") Collection<Long> guestIds);
+    
+    /**
+     * Streams the arrival and collection times of all archived parcels, e.g. to rebuild the parcel statistics.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return stream of parcel times
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.arrivalTime AS arrivalTime, p.collectionTime AS collectionTime FROM ParcelHistory p")
+    Stream<ParcelRepository.ParcelTimes> streamParcelTimes();
+    
+    /**
+     * Streams archived parcel DTOs for export, ordered by ID.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @param arrivedFrom only parcels that arrived at or after this time, or null
+     * @param arrivedTo only parcels that arrived before this time, or null
+     * @return stream of archived parcel DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(PARCEL_HISTORY_DTO_SELECT
+            + "WHERE (:arrivedFrom IS NULL OR p.arrivalTime >= :arrivedFrom) "
+            + "AND (:arrivedTo IS NULL OR p.arrivalTime < :arrivedTo) "
+            + "ORDER BY p.id")
+    Stream<ParcelDto> streamParcelDtosForExport(@Param("arrivedFrom") LocalDateTime arrivedFrom,
+                                                @Param("arrivedTo") LocalDateTime arrivedTo);
+}
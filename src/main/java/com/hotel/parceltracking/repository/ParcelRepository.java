@@ -1,21 +1,44 @@
 package com.hotel.parceltracking.repository;
 
+import com.hotel.parceltracking.dto.ParcelDto;
 import com.hotel.parceltracking.model.Parcel;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for Parcel entity.
  * Provides data access operations for parcels.
+ * Entity list queries fetch the owning guest in the same select, since every parcel DTO needs it.
+ * Read endpoints use the {@code ...Dto...} projections, which select ParcelDto directly in one
+ * joined query without loading entities into the persistence context.
  */
 @Repository
 public interface ParcelRepository extends JpaRepository<Parcel, Long> {
     
+    /**
+     * Constructor-expression select shared by the ParcelDto projection queries.
+     */
+    String PARCEL_DTO_SELECT = "SELECT new com.hotel.parceltracking.dto.ParcelDto("
+            + "p.id, p.trackingNumber, p.sender, p.description, p.arrivalTime, p.collectionTime, p.collected, "
+            + "g.id, g.name, g.roomNumber) "
+            + "FROM Parcel p JOIN p.guest g ";
+    
     /**
      * Finds a parcel by its tracking number.
      * @param trackingNumber the tracking number to search for
@@ -23,11 +46,112 @@ public interface ParcelRepository extends JpaRepository<Parcel, Long> {
      */
     Optional<Parcel> findByTrackingNumber(String trackingNumber);
     
+    /**
+     * Checks if a parcel with the tracking number exists.
+     * @param trackingNumber the tracking number
+     * @return true if the parcel exists
+     */
+    boolean existsByTrackingNumber(String trackingNumber);
+    
+    /**
+     * Collects an uncollected parcel with one conditional update, so concurrent pickups of the
+     * same parcel cannot both succeed. Bumps the version so concurrent entity updates of the
+     * parcel fail their optimistic lock check. Pending changes are flushed first; the persistence
+     * context is left as it is, so read the collected parcel back with a query, not a managed entity.
+     * @param trackingNumber the tracking number
+     * @param collectionTime the collection time to set
+     * @return number of parcels collected: 1, or 0 if no uncollected parcel has the tracking number
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Parcel p SET p.collected = true, p.collectionTime = :collectionTime, p.version = p.version + 1 "
+            + "WHERE p.trackingNumber = :trackingNumber AND p.collected = false")
+    int collectByTrackingNumber(@Param("trackingNumber") String trackingNumber,
+                                @Param("collectionTime") LocalDateTime collectionTime);
+    
+    /**
+     * Counts the parcels waiting to be collected.
+     * @return number of uncollected parcels
+     */
+    long countByCollectedFalse();
+    
+    /**
+     * Finds which of the given tracking numbers are already in use.
+     * Lets bulk intake check a whole batch for duplicates with a single query.
+     * @param trackingNumbers the tracking numbers to check
+     * @return the subset of tracking numbers that already exist
+     */
+    @Query("SELECT p.trackingNumber FROM Parcel p WHERE p.trackingNumber IN :trackingNumbers")
+    List<String> findExistingTrackingNumbers(@Param("trackingNumbers") Collection<String> trackingNumbers);
+    
+    /**
+     * Streams every tracking number, e.g. to rebuild the in-memory tracking number filter.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return stream of all tracking numbers
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.trackingNumber FROM Parcel p")
+    Stream<String> streamAllTrackingNumbers();
+    
+    /**
+     * Streams the tracking numbers of uncollected parcels, e.g. to rebuild the tracking number prefix index.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return stream of uncollected tracking numbers
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.trackingNumber FROM Parcel p WHERE p.collected = false")
+    Stream<String> streamUncollectedTrackingNumbers();
+    
+    /**
+     * Projection of the number of uncollected parcels for one room.
+     */
+    interface RoomParcelCount {
+        String getRoomNumber();
+        long getParcelCount();
+    }
+    
+    /**
+     * Projection of a parcel's arrival and collection times.
+     */
+    interface ParcelTimes {
+        LocalDateTime getArrivalTime();
+        LocalDateTime getCollectionTime();
+    }
+    
+    /**
+     * Counts the uncollected parcels of every room, e.g. to rebuild the parcel statistics.
+     * @return uncollected parcel count per room with any
+     */
+    @Query("SELECT g.roomNumber AS roomNumber, COUNT(p) AS parcelCount FROM Parcel p JOIN p.guest g "
+            + "WHERE p.collected = false GROUP BY g.roomNumber")
+    List<RoomParcelCount> countUncollectedParcelsByRoom();
+    
+    /**
+     * Streams the arrival and collection times of collected parcels and of parcels that arrived
+     * since the given time, e.g. to rebuild the parcel statistics.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @param arrivedSince parcels arriving at or after this time are included even if uncollected
+     * @return stream of parcel times
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.arrivalTime AS arrivalTime, p.collectionTime AS collectionTime FROM Parcel p "
+            + "WHERE p.collected = true OR p.arrivalTime >= :arrivedSince")
+    Stream<ParcelTimes> streamParcelTimes(@Param("arrivedSince") LocalDateTime arrivedSince);
+    
+    /**
+     * Streams the DTOs of all uncollected parcels, e.g. to schedule their collection deadlines.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return stream of uncollected parcel DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(PARCEL_DTO_SELECT + "WHERE p.collected = false")
+    Stream<ParcelDto> streamUncollectedParcelDtos();
+    
     /**
      * Finds all parcels for a specific guest.
      * @param guestId the guest ID
      * @return list of parcels for the guest
      */
+    @EntityGraph(attributePaths = "guest")
     List<Parcel> findByGuestId(Long guestId);
     
     /**
@@ -35,6 +159,7 @@ public interface ParcelRepository extends JpaRepository<Parcel, Long> {
      * @param guestId the guest ID
      * @return list of uncollected parcels for the guest
      */
+    @EntityGraph(attributePaths = "guest")
     @Query("SELECT p FROM Parcel p WHERE p.guest.id = :guestId AND p.collected = false")
     List<Parcel> findUncollectedParcelsByGuestId(@Param("guestId") Long guestId);
     
@@ -42,6 +167,7 @@ public interface ParcelRepository extends JpaRepository<Parcel, Long> {
      * Finds all uncollected parcels.
      * @return list of all uncollected parcels
      */
+    @EntityGraph(attributePaths = "guest")
     @Query("SELECT p FROM Parcel p WHERE p.collected = false")
     List<Parcel> findAllUncollectedParcels();
     
@@ -49,6 +175,7 @@ public interface ParcelRepository extends JpaRepository<Parcel, Long> {
      * Finds all collected parcels.
      * @return list of all collected parcels
      */
+    @EntityGraph(attributePaths = "guest")
     @Query("SELECT p FROM Parcel p WHERE p.collected = true")
     List<Parcel> findAllCollectedParcels();
     
@@ -56,6 +183,7 @@ public interface ParcelRepository extends JpaRepository<Parcel, Long> {
      * Finds all parcels for guests who are currently checked in.
      * @return list of parcels for checked-in guests
      */
+    @EntityGraph(attributePaths = "guest")
     @Query("SELECT p FROM Parcel p WHERE p.guest.checkOutTime IS NULL")
     List<Parcel> findParcelsForCheckedInGuests();
     
@@ -64,6 +192,110 @@ public interface ParcelRepository extends JpaRepository<Parcel, Long> {
      * @param roomNumber the room number
      * @return list of uncollected parcels for the guest in that room
      */
+    @EntityGraph(attributePaths = "guest")
     @Query("SELECT p FROM Parcel p WHERE p.guest.roomNumber = :roomNumber AND p.collected = false")
     List<Parcel> findUncollectedParcelsByGuestRoomNumber(@Param("roomNumber") String roomNumber);
-} 
\ No newline at end of file
+    
+    // DTO projections for read endpoints
+    
+    /**
+     * Finds a parcel DTO by tracking number.
+     * @param trackingNumber the tracking number to search for
+     * @return Optional containing the parcel DTO if found
+     */
+    @Query(PARCEL_DTO_SELECT + "WHERE p.trackingNumber = :trackingNumber")
+    Optional<ParcelDto> findParcelDtoByTrackingNumber(@Param("trackingNumber") String trackingNumber);
+    
+    /**
+     * Finds the next page of parcel DTOs after the given ID (keyset pagination).
+     * @param afterId only parcels with a greater ID are returned
+     * @param pageable the page size (the page number is always 0)
+     * @return slice of parcel DTOs ordered by ID
+     */
+    @Query(PARCEL_DTO_SELECT + "WHERE p.id > :afterId ORDER BY p.id")
+    Slice<ParcelDto> findParcelDtosAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Finds the next page of uncollected parcel DTOs after the given ID (keyset pagination).
+     * @param afterId only parcels with a greater ID are returned
+     * @param pageable the page size (the page number is always 0)
+     * @return slice of uncollected parcel DTOs ordered by ID
+     */
+    @Query(PARCEL_DTO_SELECT + "WHERE p.collected = false AND p.id > :afterId ORDER BY p.id")
+    Slice<ParcelDto> findUncollectedParcelDtosAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Finds uncollected parcel DTOs for a specific guest.
+     * @param guestId the guest ID
+     * @return list of uncollected parcel DTOs for the guest
+     */
+    @Query(PARCEL_DTO_SELECT + "WHERE g.id = :guestId AND p.collected = false")
+    List<ParcelDto> findUncollectedParcelDtosByGuestId(@Param("guestId") Long guestId);
+    
+    /**
+     * Finds uncollected parcel DTOs for a guest by room number.
+     * @param roomNumber the room number
+     * @return list of uncollected parcel DTOs for the guest in that room
+     */
+    @Query(PARCEL_DTO_SELECT + "WHERE g.roomNumber = :roomNumber AND p.collected = false")
+    List<ParcelDto> findUncollectedParcelDtosByGuestRoomNumber(@Param("roomNumber") String roomNumber);
+    
+    /**
+     * Finds parcel DTOs for all guests who are currently checked in.
+     * @return list of parcel DTOs for checked-in guests
+     */
+    @Query(PARCEL_DTO_SELECT + "WHERE g.checkOutTime IS NULL")
+    List<ParcelDto> findParcelDtosForCheckedInGuests();
+    
+    /**
+     * Finds parcel DTOs for a set of guests, e.g. to attach parcels to a page of guest DTOs.
+     * @param guestIds the guest IDs
+     * @return list of parcel DTOs ordered by ID
+     */
+    @Query(PARCEL_DTO_SELECT + "WHERE g.id IN :guestIds ORDER BY p.id")
+    List<ParcelDto> findParcelDtosByGuestIds(@Param("guestIds") Collection<Long> guestIds);
+    
+    /**
+     * Finds uncollected parcel DTOs for a set of guests, e.g. the parcels left behind at bulk check-out.
+     * @param guestIds the guest IDs
+     * @return list of uncollected parcel DTOs ordered by ID
+     */
+    @Query(PARCEL_DTO_SELECT + "WHERE g.id IN :guestIds AND p.collected = false ORDER BY p.id")
+    List<ParcelDto> findUncollectedParcelDtosByGuestIds(@Param("guestIds") Collection<Long> guestIds);
+    
+    /**
+     * Streams parcel DTOs for export, ordered by ID.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @param arrivedFrom only parcels that arrived at or after this time, or null
+     * @param arrivedTo only parcels that arrived before this time, or null
+     * @param collected only collected (true) or uncollected (false) parcels, or null for both
+     * @return stream of parcel DTOs
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(PARCEL_DTO_SELECT
+            + "WHERE (:arrivedFrom IS NULL OR p.arrivalTime >= :arrivedFrom) "
+            + "AND (:arrivedTo IS NULL OR p.arrivalTime < :arrivedTo) "
+            + "AND (:collected IS NULL OR p.collected = :collected) "
+            + "ORDER BY p.id")
+    Stream<ParcelDto> streamParcelDtosForExport(@Param("arrivedFrom") LocalDateTime arrivedFrom,
+                                                @Param("arrivedTo") LocalDateTime arrivedTo,
+                                                @Param("collected") Boolean collected);
+    
+    /**
+     * Finds the next chunk of parcels to archive: collected before the cutoff.
+     * @param cutoff only parcels collected before this time
+     * @param pageable the chunk size (the page number is always 0)
+     * @return parcel IDs in ascending order
+     */
+    @Query("SELECT p.id FROM Parcel p WHERE p.collected = true AND p.collectionTime < :cutoff ORDER BY p.id")
+    List<Long> findArchivableParcelIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    /**
+     * Deletes parcels with one set-based statement, e.g. once they have been archived.
+     * @param parcelIds the parcel IDs
+     * @return number of deleted parcels
+     */
+    @Modifying
+    @Query("DELETE FROM Parcel p WHERE p.id IN :parcelIds")
+    int deleteParcels(@Param("parcelIds") Collection<Long> parcelIds);
+}
@@ -0,0 +1,152 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.config.CacheConfig;
+import com.hotel.parceltracking.dto.ArchiveResultDto;
+import com.hotel.parceltracking.repository.GuestHistoryRepository;
+import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.repository.ParcelHistoryRepository;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves finished records out of the active tables (hot/cold split).
+ * Parcels collected, and guests checked out, longer ago than the configured age are copied
+ * to the history tables and deleted from the active ones, so queries on active state keep
+ * working on small, index-resident tables. Each chunk is moved in its own short transaction
+ * with one insert-select and one delete, so the archiver never holds locks for long.
+ * Archived records stay readable through the {@code history=true} option of the read endpoints.
+ */
+@Service
+public class ArchiveService {
+    
+    private final ParcelRepository parcelRepository;
+    private final GuestRepository guestRepository;
+    private final ParcelHistoryRepository parcelHistoryRepository;
+    private final GuestHistoryRepository guestHistoryRepository;
+    private final GuestNameIndex guestNameIndex;
+    private final DataVersion dataVersion;
+    private final TransactionTemplate transaction;
+    private final CacheManager cacheManager;
+    private final Duration minAge;
+    private final int chunkSize;
+    
+    private final Counter archivedParcels;
+    private final Counter archivedGuests;
+    
+    @Autowired
+    public ArchiveService(ParcelRepository parcelRepository, GuestRepository guestRepository,
+                          ParcelHistoryRepository parcelHistoryRepository, GuestHistoryRepository guestHistoryRepository,
+                          GuestNameIndex guestNameIndex, DataVersion dataVersion, PlatformTransactionManager transactionManager, CacheManager cacheManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${parcel-tracking.archive.min-age:30d}") Duration minAge,
+                          @Value("${parcel-tracking.archive.chunk-size:1000}") int chunkSize) {
+        this.parcelRepository = parcelRepository;
+        this.guestRepository = guestRepository;
+        this.parcelHistoryRepository = parcelHistoryRepository;
+        this.guestHistoryRepository = guestHistoryRepository;
+        this.guestNameIndex = guestNameIndex;
+        this.dataVersion = dataVersion;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.minAge = minAge;
+        this.chunkSize = chunkSize;
+        
+        this.archivedParcels = Counter.builder("parcel.tracking.archived")
+                .description("Records moved to the history tables")
+                .tag("type", "parcel")
+                .register(meterRegistry);
+        this.archivedGuests = Counter.builder("parcel.tracking.archived")
+                .description("Records moved to the history tables")
+                .tag("type", "guest")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Archives everything older than the configured minimum age, on the configured schedule.
+     */
+    @Scheduled(cron = "${parcel-tracking.archive.cron:0 30 3 * * *}")
+    public void archiveOnSchedule() {
+        archive();
+    }
+    
+    /**
+     * Archives parcels collected, and guests checked out, before now minus the configured minimum age.
+     * @return the number of archived parcels and guests
+     */
+    public ArchiveResultDto archive() {
+        return archive(LocalDateTime.now().minus(minAge));
+    }
+    
+    /**
+     * Archives parcels collected, and guests checked out, before the cutoff.
+     * Parcels go first, so departed guests whose parcels have all been archived can follow
+     * in the same run; a guest with uncollected parcels stays active.
+     * @param cutoff the archive cutoff time
+     * @return the number of archived parcels and guests
+     */
+    public synchronized ArchiveResultDto archive(LocalDateTime cutoff) {
+        int parcels = 0;
+        int chunk;
+        do {
+            chunk = transaction.execute(status -> archiveParcelChunk(cutoff));
+            archivedParcels.increment(chunk);
+            parcels += chunk;
+        } while (chunk == chunkSize);
+        
+        int guests = 0;
+        do {
+            chunk = transaction.execute(status -> archiveGuestChunk(cutoff));
+            archivedGuests.increment(chunk);
+            guests += chunk;
+        } while (chunk == chunkSize);
+        
+        return new ArchiveResultDto(cutoff, parcels, guests);
+    }
+    
+    private int archiveParcelChunk(LocalDateTime cutoff) {
+        List<Long> parcelIds = parcelRepository.findArchivableParcelIds(cutoff, PageRequest.of(0, chunkSize));
+        if (parcelIds.isEmpty()) {
+            return 0;
+        }
+        parcelHistoryRepository.copyFromParcels(parcelIds, LocalDateTime.now());
+        parcelRepository.deleteParcels(parcelIds);
+        // Cached lookups by tracking number may point at parcels that are no longer active
+        TransactionCallbacks.afterCommit(this::clearParcelCache);
+        dataVersion.recordChange();
+        return parcelIds.size();
+    }
+    
+    private int archiveGuestChunk(LocalDateTime cutoff) {
+        List<Long> guestIds = guestRepository.findArchivableGuestIds(cutoff, PageRequest.of(0, chunkSize));
+        if (guestIds.isEmpty()) {
+            return 0;
+        }
+        guestHistoryRepository.copyFromGuests(guestIds, LocalDateTime.now());
+        guestRepository.deleteGuests(guestIds);
+        guestNameIndex.removeAll(guestIds);
+        dataVersion.recordChange();
+        return guestIds.size();
+    }
+    
+    private void clearParcelCache() {
+        Cache cache = cacheManager.getCache(CacheConfig.PARCELS_BY_TRACKING_NUMBER);
+        if (cache != null) {
+            // Already after commit: clear() would be deferred by the transaction-aware cache and never run
+            cache.invalidate();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the guest and parcel data, advanced by every write.
+ * List endpoints expose it as a strong ETag, so a client holding the current tag is answered
+ * with 304 Not Modified before any query runs. The tag also carries the application start
+ * time, so versions counted from zero again after a restart never match tags issued before it.
+ * <p>
+ * A write is counted as started inside its transaction and as finished once that transaction
+ * has committed or rolled back. While any write is in flight there is no tag, so a write that
+ * has committed but not yet been counted can never be answered with a stale 304.
+ */
+@Component
+public class DataVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+
+    /**
+     * Records a guest or parcel change as it is published, inside its transaction.
+     * Overdue flags are not part of the listed data and leave the version unchanged.
+     * @param event the lifecycle event
+     */
+    @EventListener
+    public void onLifecycleEvent(LifecycleEventDto event) {
+        if (event.getType() != LifecycleEventType.PARCEL_OVERDUE) {
+            recordChange();
+        }
+    }
+
+    /**
+     * Records a write, such as archiving, that publishes no lifecycle event. Call it inside the
+     * write's transaction, before it commits; the write is finished once the transaction completes.
+     */
+    public void recordChange() {
+        started.incrementAndGet();
+        TransactionCallbacks.afterCompletion(finished::incrementAndGet);
+    }
+
+    /**
+     * Gets the current version.
+     * @return the number of finished writes since startup
+     */
+    public long current() {
+        return finished.get();
+    }
+
+    /**
+     * Gets the current version as a strong ETag.
+     * Read it before querying: a write committing meanwhile then leaves a tag older than the
+     * body, which only costs the client a full response next time, never a stale 304.
+     * @return quoted entity tag, or {@code null} while a write is in flight
+     */
+    public String etag() {
+        // Finished first: a write starting in between then shows as in flight
+        long version = finished.get();
+        if (started.get() != version) {
+            return null;
+        }
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,156 @@
+package com.hotel.parceltracking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.repository.GuestHistoryRepository;
+import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.repository.ParcelHistoryRepository;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service class for bulk exports.
+ * Writes parcel and guest history as NDJSON (one JSON object per line), streaming rows
+ * from the database to the output so memory use does not grow with the export size.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final ParcelRepository parcelRepository;
+    private final GuestRepository guestRepository;
+    private final ParcelHistoryRepository parcelHistoryRepository;
+    private final GuestHistoryRepository guestHistoryRepository;
+    private final ObjectWriter ndjsonWriter;
+
+    @Autowired
+    public ExportService(ParcelRepository parcelRepository, GuestRepository guestRepository,
+                         ParcelHistoryRepository parcelHistoryRepository, GuestHistoryRepository guestHistoryRepository,
+                         ObjectMapper objectMapper) {
+        this.parcelRepository = parcelRepository;
+        this.guestRepository = guestRepository;
+        this.parcelHistoryRepository = parcelHistoryRepository;
+        this.guestHistoryRepository = guestHistoryRepository;
+        this.ndjsonWriter = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Exports parcels as NDJSON, ordered by ID.
+     * @param arrivedFrom only parcels that arrived at or after this time, or null
+     * @param arrivedTo only parcels that arrived before this time, or null
+     * @param collected only collected (true) or uncollected (false) parcels, or null for both
+     * @param history whether to include archived parcels (which are all collected)
+     * @param gzip whether to gzip the output
+     * @param out the output; flushed but not closed
+     * @return number of exported parcels
+     */
+    public long exportParcels(LocalDateTime arrivedFrom, LocalDateTime arrivedTo, Boolean collected,
+                              boolean history, boolean gzip, OutputStream out) {
+        try (Stream<ParcelDto> parcels = parcelRepository.streamParcelDtosForExport(arrivedFrom, arrivedTo, collected)) {
+            if (!history || Boolean.FALSE.equals(collected)) {
+                return writeNdjson(parcels.iterator(), gzip, out);
+            }
+            try (Stream<ParcelDto> archived = parcelHistoryRepository.streamParcelDtosForExport(arrivedFrom, arrivedTo)) {
+                return writeNdjson(mergeById(parcels.iterator(), archived.iterator(), ParcelDto::getId), gzip, out);
+            }
+        }
+    }
+
+    /**
+     * Exports guests as NDJSON, ordered by ID. Parcels are not included.
+     * @param checkedInFrom only guests who checked in at or after this time, or null
+     * @param checkedInTo only guests who checked in before this time, or null
+     * @param checkedIn only checked-in (true) or checked-out (false) guests, or null for both
+     * @param history whether to include archived guests (who are all checked out)
+     * @param gzip whether to gzip the output
+     * @param out the output; flushed but not closed
+     * @return number of exported guests
+     */
+    public long exportGuests(LocalDateTime checkedInFrom, LocalDateTime checkedInTo, Boolean checkedIn,
+                             boolean history, boolean gzip, OutputStream out) {
+        try (Stream<GuestDto> guests = guestRepository.streamGuestDtosForExport(checkedInFrom, checkedInTo, checkedIn)) {
+            if (!history || Boolean.TRUE.equals(checkedIn)) {
+                return writeNdjson(guests.iterator(), gzip, out);
+            }
+            try (Stream<GuestDto> archived = guestHistoryRepository.streamGuestDtosForExport(checkedInFrom, checkedInTo)) {
+                return writeNdjson(mergeById(guests.iterator(), archived.iterator(), GuestDto::getId), gzip, out);
+            }
+        }
+    }
+
+    private long writeNdjson(Iterator<?> rows, boolean gzip, OutputStream out) {
+        try {
+            GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : null;
+            OutputStream target = gzip ? gzipOut : out;
+            long count = 0;
+            try (SequenceWriter sequenceWriter = ndjsonWriter.writeValues(target)) {
+                while (rows.hasNext()) {
+                    sequenceWriter.write(rows.next());
+                    count++;
+                }
+            }
+            if (count > 0) {
+                target.write('\n');
+            }
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+            out.flush();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export failed", e);
+        }
+    }
+
+    /**
+     * Merges two iterators ordered by ID into one ordered by ID, without buffering either.
+     */
+    private static <T> Iterator<T> mergeById(Iterator<T> first, Iterator<T> second, Function<T, Long> idExtractor) {
+        return new Iterator<>() {
+            private T nextFirst = first.hasNext() ? first.next() : null;
+            private T nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result;
+                if (nextSecond == null
+                        || (nextFirst != null && idExtractor.apply(nextFirst) <= idExtractor.apply(nextSecond))) {
+                    result = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    result = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+}
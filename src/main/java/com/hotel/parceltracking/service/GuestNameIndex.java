@@ -0,0 +1,319 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.GuestSearchResultDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.repository.GuestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over the names of the guests in the guests table, for ranked name
+ * search without the full scan of a {@code LIKE '%...%'} query.
+ * Names are normalized (lower case, accents and punctuation removed) and split into the
+ * trigrams of their words, each word padded with two spaces in front and one behind, as
+ * PostgreSQL's pg_trgm does. A search counts, per guest, the trigrams shared with the query
+ * by walking the posting lists of the query's trigrams only. Names containing the query rank
+ * first, then names by trigram similarity, so misspelt queries still find the guest; names
+ * neither containing the query nor similar enough are left out. A query of one or two
+ * letters only matches at the start of a word.
+ * Built from the database at startup, kept in sync from the committed lifecycle events and
+ * pruned by {@link ArchiveService} once its transactions commit.
+ */
+@Component
+public class GuestNameIndex {
+
+    // pg_trgm's default similarity threshold
+    static final double MIN_SIMILARITY = 0.3;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final GuestRepository guestRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Map<Long, IndexedGuest> guests = new HashMap<>();
+    private final Map<Long, GuestIdList> postings = new HashMap<>();
+    // Posting entries of removed guests, dropped by the next compaction
+    private long stalePostings;
+    private long totalPostings;
+
+    @Autowired
+    public GuestNameIndex(GuestRepository guestRepository, PlatformTransactionManager transactionManager) {
+        this.guestRepository = guestRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuilds the index from the guests in the database.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            guests.clear();
+            postings.clear();
+            stalePostings = 0;
+            totalPostings = 0;
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<GuestRepository.GuestName> names = guestRepository.streamGuestNames()) {
+                    names.forEach(guest -> index(new IndexedGuest(guest.getId(), guest.getName(), guest.getRoomNumber(),
+                            guest.getCheckOutTime() == null)));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a checked-in guest or records a check-out once its transaction has committed.
+     * Runs without a transaction when the event was published outside one.
+     * @param event the lifecycle event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLifecycleEvent(LifecycleEventDto event) {
+        GuestDto guest = event.getGuest();
+        if (event.getType() == LifecycleEventType.GUEST_CHECKED_IN) {
+            add(guest.getId(), guest.getName(), guest.getRoomNumber());
+        } else if (event.getType() == LifecycleEventType.GUEST_CHECKED_OUT) {
+            checkOut(guest.getId());
+        }
+    }
+
+    /**
+     * Indexes a checked-in guest.
+     * @param guestId the guest ID
+     * @param name the guest name
+     * @param roomNumber the room number
+     */
+    void add(Long guestId, String name, String roomNumber) {
+        lock.writeLock().lock();
+        try {
+            index(new IndexedGuest(guestId, name, roomNumber, true));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records a check-out, so the guest no longer matches checked-in searches.
+     * @param guestId the checked-out guest ID
+     */
+    void checkOut(Long guestId) {
+        lock.writeLock().lock();
+        try {
+            IndexedGuest guest = guests.get(guestId);
+            if (guest != null) {
+                guest.checkedIn = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes guests, e.g. once archived. Applied once the current transaction commits.
+     * Their posting entries are left in place until they make up half the index, then the
+     * posting lists are rebuilt from the remaining guests.
+     * @param guestIds the removed guest IDs
+     */
+    public void removeAll(Collection<Long> guestIds) {
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Long guestId : guestIds) {
+                    IndexedGuest guest = guests.remove(guestId);
+                    if (guest != null) {
+                        stalePostings += guest.trigrams.length;
+                    }
+                }
+                if (stalePostings * 2 > totalPostings) {
+                    compact();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Searches guests by name, best matches first.
+     * @param query the name or part of it, possibly misspelt
+     * @param checkedInOnly whether to search only checked-in guests
+     * @param limit maximum number of results
+     * @return matching guests, names containing the query first, then by similarity
+     */
+    public List<GuestSearchResultDto> search(String query, boolean checkedInOnly, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        long[] queryTrigrams = trigrams(normalizedQuery);
+
+        List<GuestSearchResultDto> results = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, int[]> sharedTrigrams = new HashMap<>();
+            for (long trigram : queryTrigrams) {
+                GuestIdList guestIds = postings.get(trigram);
+                if (guestIds != null) {
+                    guestIds.forEach(guestId -> sharedTrigrams.computeIfAbsent(guestId, id -> new int[1])[0]++);
+                }
+            }
+
+            sharedTrigrams.forEach((guestId, shared) -> {
+                IndexedGuest guest = guests.get(guestId);
+                if (guest == null || (checkedInOnly && !guest.checkedIn)) {
+                    return;
+                }
+                boolean substringMatch = guest.normalizedName.contains(normalizedQuery);
+                double score = (double) shared[0] / (queryTrigrams.length + guest.trigrams.length - shared[0]);
+                if (substringMatch || score >= MIN_SIMILARITY) {
+                    results.add(new GuestSearchResultDto(guest.id, guest.name, guest.roomNumber, guest.checkedIn,
+                            substringMatch, score));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return results.stream()
+                .sorted(Comparator.comparing(GuestSearchResultDto::isSubstringMatch).reversed()
+                        .thenComparing(Comparator.comparingDouble(GuestSearchResultDto::getScore).reversed())
+                        .thenComparing(GuestSearchResultDto::getName)
+                        .thenComparing(GuestSearchResultDto::getGuestId))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Gets the number of indexed guests.
+     * @return indexed guest count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return guests.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cases a name, strips accents and turns anything but letters and digits into single spaces.
+     */
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        String unaccented = ACCENTS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(unaccented.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Gets the distinct trigrams of a normalized name, each packed into a long.
+     */
+    static long[] trigrams(String normalizedName) {
+        return Arrays.stream(normalizedName.split(" "))
+                .filter(word -> !word.isEmpty())
+                .flatMapToLong(word -> {
+                    String padded = "  " + word + " ";
+                    long[] wordTrigrams = new long[padded.length() - 2];
+                    for (int i = 0; i < wordTrigrams.length; i++) {
+                        wordTrigrams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+                    }
+                    return Arrays.stream(wordTrigrams);
+                })
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * Adds a guest and its posting entries, replacing any earlier entry for the guest. Called with the write lock held.
+     */
+    private void index(IndexedGuest guest) {
+        IndexedGuest previous = guests.put(guest.id, guest);
+        if (previous != null) {
+            stalePostings += previous.trigrams.length;
+        }
+        for (long trigram : guest.trigrams) {
+            postings.computeIfAbsent(trigram, key -> new GuestIdList()).add(guest.id);
+        }
+        totalPostings += guest.trigrams.length;
+    }
+
+    /**
+     * Rebuilds the posting lists from the indexed guests. Called with the write lock held.
+     */
+    private void compact() {
+        List<IndexedGuest> remaining = new ArrayList<>(guests.values());
+        guests.clear();
+        postings.clear();
+        stalePostings = 0;
+        totalPostings = 0;
+        remaining.forEach(this::index);
+    }
+
+    private static final class IndexedGuest {
+        private final Long id;
+        private final String name;
+        private final String normalizedName;
+        private final long[] trigrams;
+        private final String roomNumber;
+        private boolean checkedIn;
+
+        private IndexedGuest(Long id, String name, String roomNumber, boolean checkedIn) {
+            this.id = id;
+            this.name = name;
+            this.normalizedName = normalize(name);
+            this.trigrams = trigrams(normalizedName);
+            this.roomNumber = roomNumber;
+            this.checkedIn = checkedIn;
+        }
+    }
+
+    /**
+     * Growable list of guest IDs, without boxing each one.
+     */
+    private static final class GuestIdList {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void forEach(LongConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(ids[i]);
+            }
+        }
+    }
+}
@@ -1,62 +1,121 @@
 package com.hotel.parceltracking.service;
 
+import com.hotel.parceltracking.config.MetricsConfig;
+import com.hotel.parceltracking.config.RetryOnConflict;
+import com.hotel.parceltracking.dto.CursorPageDto;
+import com.hotel.parceltracking.dto.GuestCheckOutBatchResultDto;
+import com.hotel.parceltracking.dto.GuestCheckOutItemResultDto;
 import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.GuestSearchResultDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
 import com.hotel.parceltracking.dto.ParcelDto;
 import com.hotel.parceltracking.exception.BusinessLogicException;
 import com.hotel.parceltracking.exception.ResourceNotFoundException;
 import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.repository.GuestHistoryRepository;
 import com.hotel.parceltracking.repository.GuestRepository;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing hotel guests.
  * Handles business logic for guest check-in, check-out, and tracking operations.
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.95, 0.99}, histogram = true)
+@Counted(MetricsConfig.SERVICE_COUNTER)
 @Transactional
 public class GuestService {
     
     private final GuestRepository guestRepository;
+    private final GuestHistoryRepository guestHistoryRepository;
     private final ParcelService parcelService;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final RoomLockStripes roomLocks;
+    private final GuestNameIndex guestNameIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public GuestService(GuestRepository guestRepository, ParcelService parcelService) {
+    public GuestService(GuestRepository guestRepository, GuestHistoryRepository guestHistoryRepository,
+                        ParcelService parcelService, RoomOccupancyIndex roomOccupancyIndex,
+                        RoomLockStripes roomLocks, GuestNameIndex guestNameIndex,
+                        ApplicationEventPublisher eventPublisher) {
         this.guestRepository = guestRepository;
+        this.guestHistoryRepository = guestHistoryRepository;
         this.parcelService = parcelService;
+        this.roomOccupancyIndex = roomOccupancyIndex;
+        this.roomLocks = roomLocks;
+        this.guestNameIndex = guestNameIndex;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
      * Checks in a new guest to the hotel.
+     * Check-ins for the same room are serialized by a striped room lock held until commit,
+     * and the unique constraint on the active room number rejects any that still collide.
      * @param guestDto the guest information
      * @return the checked-in guest
      * @throws BusinessLogicException if room is already occupied
      */
     @Transactional
     public GuestDto checkInGuest(GuestDto guestDto) {
-        // Check if room is already occupied
-        if (guestRepository.isGuestCheckedInByRoomNumber(guestDto.getRoomNumber())) {
-            throw new BusinessLogicException("Room " + guestDto.getRoomNumber() + " is already occupied");
+        String roomNumber = guestDto.getRoomNumber();
+        // Check if room is already occupied; fails fast without taking the lock
+        if (roomOccupancyIndex.isOccupied(roomNumber)) {
+            throw new BusinessLogicException(roomOccupiedMessage(roomNumber));
         }
         
-        Guest guest = new Guest(guestDto.getName(), guestDto.getRoomNumber(), LocalDateTime.now());
-        Guest savedGuest = guestRepository.save(guest);
+        roomLocks.lockUntilCompletion(roomNumber);
+        // Re-check under the lock: a competing check-in may have committed meanwhile
+        if (roomOccupancyIndex.isOccupied(roomNumber)) {
+            throw new BusinessLogicException(roomOccupiedMessage(roomNumber));
+        }
+        
+        Guest guest = new Guest(guestDto.getName(), roomNumber, LocalDateTime.now());
+        // Flush now so a conflicting check-in hits the unique constraint inside this method
+        Guest savedGuest;
+        try {
+            savedGuest = guestRepository.saveAndFlush(guest);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessLogicException(roomOccupiedMessage(roomNumber), e);
+        }
+        roomOccupancyIndex.occupy(savedGuest.getRoomNumber(), savedGuest.getId());
         
-        return convertToDto(savedGuest);
+        GuestDto checkedInGuest = convertToDto(savedGuest);
+        eventPublisher.publishEvent(LifecycleEventDto.ofGuest(LifecycleEventType.GUEST_CHECKED_IN, checkedInGuest));
+        return checkedInGuest;
     }
     
     /**
      * Checks out a guest from the hotel.
+     * A concurrent update of the guest fails the version check and the check-out is retried.
      * @param guestId the guest ID
      * @return the checked-out guest
      * @throws ResourceNotFoundException if guest not found
      * @throws BusinessLogicException if guest already checked out
      */
+    @RetryOnConflict
     public GuestDto checkOutGuest(Long guestId) {
         Guest guest = guestRepository.findById(guestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Guest not found with ID: " + guestId));
@@ -66,9 +125,13 @@ public class GuestService {
         }
         
         guest.checkOut();
-        Guest savedGuest = guestRepository.save(guest);
+        // Flush now so a concurrent check-out fails the version check here and is retried
+        Guest savedGuest = guestRepository.saveAndFlush(guest);
+        roomOccupancyIndex.vacate(savedGuest.getRoomNumber(), savedGuest.getId());
         
-        return convertToDto(savedGuest);
+        GuestDto checkedOutGuest = convertToDto(savedGuest);
+        eventPublisher.publishEvent(LifecycleEventDto.ofGuest(LifecycleEventType.GUEST_CHECKED_OUT, checkedOutGuest));
+        return checkedOutGuest;
     }
     
     /**
@@ -77,14 +140,93 @@ public class GuestService {
      * @return the checked-out guest
      * @throws ResourceNotFoundException if no checked-in guest found in the room
      */
+    @RetryOnConflict
     public GuestDto checkOutGuestByRoomNumber(String roomNumber) {
-        List<Guest> checkedInGuests = guestRepository.findAllCheckedInGuests();
-        Guest guest = checkedInGuests.stream()
-                .filter(g -> g.getRoomNumber().equals(roomNumber))
-                .findFirst()
+        Long guestId = roomOccupancyIndex.findGuestId(roomNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("No checked-in guest found in room: " + roomNumber));
         
-        return checkOutGuest(guest.getId());
+        return checkOutGuest(guestId);
+    }
+    
+    /**
+     * Checks out many guests at once, e.g. the morning's departures, in one transaction.
+     * Room numbers are resolved through the occupancy index, the guests are loaded with one
+     * query, checked out with one set-based update, and the parcels they left uncollected are
+     * fetched with one more query. Invalid entries are rejected individually.
+     * @param guestIds the guest IDs to check out, or null
+     * @param roomNumbers the rooms whose guests to check out, or null
+     * @return the outcome of every guest ID and then every room number, in request order
+     * @throws BusinessLogicException if nothing was requested, or a guest was checked out concurrently
+     */
+    public GuestCheckOutBatchResultDto checkOutGuests(List<Long> guestIds, List<String> roomNumbers) {
+        List<Long> requestedIds = guestIds == null ? List.of() : guestIds;
+        List<String> requestedRooms = roomNumbers == null ? List.of() : roomNumbers;
+        if (requestedIds.isEmpty() && requestedRooms.isEmpty()) {
+            throw new BusinessLogicException("At least one guest ID or room number is required");
+        }
+        
+        int size = requestedIds.size() + requestedRooms.size();
+        Long[] targetIds = new Long[size];
+        GuestCheckOutItemResultDto[] results = new GuestCheckOutItemResultDto[size];
+        for (int i = 0; i < requestedIds.size(); i++) {
+            targetIds[i] = requestedIds.get(i);
+        }
+        for (int i = 0; i < requestedRooms.size(); i++) {
+            String roomNumber = requestedRooms.get(i);
+            int index = requestedIds.size() + i;
+            Optional<Long> guestId = roomOccupancyIndex.findGuestId(roomNumber);
+            if (guestId.isPresent()) {
+                targetIds[index] = guestId.get();
+            } else {
+                results[index] = GuestCheckOutItemResultDto.rejected(null, roomNumber, "No checked-in guest found in room: " + roomNumber);
+            }
+        }
+        
+        Set<Long> lookupIds = Arrays.stream(targetIds).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, GuestDto> guestsById = lookupIds.isEmpty()
+                ? Map.of()
+                : guestRepository.findGuestDtosByIds(lookupIds).stream()
+                        .collect(Collectors.toMap(GuestDto::getId, Function.identity()));
+        
+        Set<Long> checkOutIds = new LinkedHashSet<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Long guestId = targetIds[i];
+            GuestDto guest = guestsById.get(guestId);
+            if (guest == null) {
+                results[i] = GuestCheckOutItemResultDto.rejected(guestId, null, "Guest not found with ID: " + guestId);
+            } else if (!guest.isCheckedIn()) {
+                results[i] = GuestCheckOutItemResultDto.rejected(guestId, guest.getRoomNumber(), "Guest is already checked out");
+            } else if (!checkOutIds.add(guestId)) {
+                results[i] = GuestCheckOutItemResultDto.rejected(guestId, guest.getRoomNumber(), "Guest " + guestId + " appears more than once in the request");
+            } else {
+                pendingIndexes.add(i);
+            }
+        }
+        
+        if (!checkOutIds.isEmpty()) {
+            LocalDateTime checkOutTime = LocalDateTime.now();
+            int updated = guestRepository.checkOutGuests(checkOutIds, checkOutTime);
+            if (updated != checkOutIds.size()) {
+                // Rolls back the whole batch rather than report guests another request checked out
+                throw new BusinessLogicException("Some guests were checked out concurrently; retry the batch");
+            }
+            Map<Long, List<ParcelDto>> uncollectedByGuestId = parcelService.getUncollectedParcelsByGuestIds(checkOutIds);
+            
+            for (int index : pendingIndexes) {
+                GuestDto guest = guestsById.get(targetIds[index]);
+                guest.setCheckOutTime(checkOutTime);
+                guest.setCheckedIn(false);
+                roomOccupancyIndex.vacate(guest.getRoomNumber(), guest.getId());
+                eventPublisher.publishEvent(LifecycleEventDto.ofGuest(LifecycleEventType.GUEST_CHECKED_OUT, guest));
+                results[index] = GuestCheckOutItemResultDto.checkedOut(guest, uncollectedByGuestId.getOrDefault(guest.getId(), List.of()));
+            }
+        }
+        
+        return new GuestCheckOutBatchResultDto(pendingIndexes.size(), size - pendingIndexes.size(), Arrays.asList(results));
     }
     
     /**
@@ -93,20 +235,38 @@ public class GuestService {
      */
     @Transactional(readOnly = true)
     public List<GuestDto> getAllCheckedInGuests() {
-        return guestRepository.findAllCheckedInGuests().stream()
-                .map(this::convertToDto)
-                .toList();
+        return withParcels(guestRepository.findCheckedInGuestDtos());
+    }
+    
+    /**
+     * Gets one page of all guests (checked-in and checked-out), ordered by ID.
+     * @param afterId cursor from the previous page, or null for the first page
+     * @param size the page size
+     * @return page of guests
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<GuestDto> getGuests(Long afterId, int size) {
+        Slice<GuestDto> slice = guestRepository.findGuestDtosAfter(
+                afterId == null ? 0L : afterId, PageRequest.of(0, size));
+        return CursorPageDto.of(withParcels(slice.getContent()), slice.hasNext(), GuestDto::getId);
     }
     
     /**
-     * Gets all guests (checked-in and checked-out).
-     * @return list of all guests
+     * Gets one page of all guests, active and archived, ordered by ID.
+     * Each guest carries both its active and its archived parcels.
+     * @param afterId cursor from the previous page, or null for the first page
+     * @param size the page size
+     * @return page of active and archived guests
      */
     @Transactional(readOnly = true)
-    public List<GuestDto> getAllGuests() {
-        return guestRepository.findAll().stream()
-                .map(this::convertToDto)
-                .toList();
+    public CursorPageDto<GuestDto> getGuestsIncludingHistory(Long afterId, int size) {
+        long after = afterId == null ? 0L : afterId;
+        Slice<GuestDto> active = guestRepository.findGuestDtosAfter(after, PageRequest.of(0, size));
+        Slice<GuestDto> archived = guestHistoryRepository.findGuestDtosAfter(after, PageRequest.of(0, size));
+        CursorPageDto<GuestDto> page = CursorPageDto.merge(active.getContent(), active.hasNext(),
+                archived.getContent(), archived.hasNext(), size, GuestDto::getId);
+        withParcelsIncludingHistory(page.getItems());
+        return page;
     }
     
     /**
@@ -117,20 +277,49 @@ public class GuestService {
      */
     @Transactional(readOnly = true)
     public GuestDto getGuestById(Long guestId) {
-        Guest guest = guestRepository.findById(guestId)
+        GuestDto guest = guestRepository.findGuestDtoById(guestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Guest not found with ID: " + guestId));
-        return convertToDto(guest);
+        return withParcels(List.of(guest)).get(0);
     }
     
     /**
-     * Finds a guest by room number.
+     * Finds a guest by ID, falling back to archived guests.
+     * The guest carries both its active and its archived parcels.
+     * @param guestId the guest ID
+     * @return the active or archived guest
+     * @throws ResourceNotFoundException if no active or archived guest has the ID
+     */
+    @Transactional(readOnly = true)
+    public GuestDto getGuestByIdIncludingHistory(Long guestId) {
+        GuestDto guest = guestRepository.findGuestDtoById(guestId)
+                .or(() -> guestHistoryRepository.findGuestDtoById(guestId))
+                .orElseThrow(() -> new ResourceNotFoundException("Guest not found with ID: " + guestId));
+        return withParcelsIncludingHistory(List.of(guest)).get(0);
+    }
+    
+    /**
+     * Finds the guest currently checked into a room.
      * @param roomNumber the room number
-     * @return the guest if found
+     * @return the guest if the room is occupied
      */
     @Transactional(readOnly = true)
     public Optional<GuestDto> getGuestByRoomNumber(String roomNumber) {
-        return guestRepository.findByRoomNumber(roomNumber)
-                .map(this::convertToDto);
+        return roomOccupancyIndex.findGuestId(roomNumber)
+                .flatMap(guestRepository::findGuestDtoById)
+                .map(guest -> withParcels(List.of(guest)).get(0));
+    }
+    
+    /**
+     * Searches guests by name in the in-memory name index, without querying the database.
+     * Tolerates misspellings; names containing the query rank first.
+     * @param query the name or part of it
+     * @param checkedInOnly whether to search only checked-in guests
+     * @param limit maximum number of results
+     * @return matching guests, best match first
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<GuestSearchResultDto> searchGuests(String query, boolean checkedInOnly, int limit) {
+        return guestNameIndex.search(query, checkedInOnly, limit);
     }
     
     /**
@@ -140,7 +329,39 @@ public class GuestService {
      */
     @Transactional(readOnly = true)
     public boolean isGuestCheckedIn(String roomNumber) {
-        return guestRepository.isGuestCheckedInByRoomNumber(roomNumber);
+        return roomOccupancyIndex.isOccupied(roomNumber);
+    }
+    
+    /**
+     * Attaches parcels to projected guest DTOs with one query for the whole list.
+     * Guests without parcels keep a null parcel list, as in {@link #convertToDto(Guest)}.
+     * @param guests the guest DTOs
+     * @return the same guest DTOs
+     */
+    private List<GuestDto> withParcels(List<GuestDto> guests) {
+        Map<Long, List<ParcelDto>> parcelsByGuestId = parcelService.getParcelsByGuestIds(
+                guests.stream().map(GuestDto::getId).toList());
+        guests.forEach(guest -> guest.setParcels(parcelsByGuestId.get(guest.getId())));
+        return guests;
+    }
+    
+    /**
+     * Attaches active and archived parcels to projected guest DTOs, as {@link #withParcels(List)} does.
+     * @param guests the guest DTOs
+     * @return the same guest DTOs
+     */
+    private List<GuestDto> withParcelsIncludingHistory(List<GuestDto> guests) {
+        Map<Long, List<ParcelDto>> parcelsByGuestId = parcelService.getParcelsByGuestIdsIncludingHistory(
+                guests.stream().map(GuestDto::getId).toList());
+        guests.forEach(guest -> guest.setParcels(parcelsByGuestId.get(guest.getId())));
+        return guests;
+    }
+    
+    /**
+     * Builds the error message for a room that already has a checked-in guest.
+     */
+    private static String roomOccupiedMessage(String roomNumber) {
+        return "Room " + roomNumber + " is already occupied";
     }
     
     /**
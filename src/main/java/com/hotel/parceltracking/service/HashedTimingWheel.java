@@ -0,0 +1,133 @@
+package com.hotel.parceltracking.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, holding timeouts by key.
+ * A timeout due in k ticks goes into the bucket k ticks ahead, with the number of full
+ * rotations left before it is due. Scheduling and cancelling are O(1); each tick visits
+ * one bucket, so a timeout costs O(1) per rotation until it expires.
+ * Not thread-safe: callers serialize access to it.
+ * @param <K> the key a timeout is scheduled and cancelled by
+ * @param <V> the value handed back when the timeout expires
+ */
+final class HashedTimingWheel<K, V> {
+
+    private final Entry<K, V>[] buckets;
+    private final long tickNanos;
+    private final Map<K, Entry<K, V>> entries = new HashMap<>();
+    // Ticks elapsed since the wheel was created
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(int wheelSize, Duration tickDuration) {
+        if (wheelSize <= 0 || tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Wheel size and tick duration must be positive");
+        }
+        this.buckets = (Entry<K, V>[]) new Entry[wheelSize];
+        this.tickNanos = tickDuration.toNanos();
+    }
+
+    /**
+     * Schedules a timeout, replacing any timeout already scheduled for the key.
+     * A delay of up to one tick, including a delay already passed, expires on the next tick.
+     * @param key the key
+     * @param value the value returned when the timeout expires
+     * @param delay time until the timeout is due
+     */
+    void schedule(K key, V value, Duration delay) {
+        cancel(key);
+        long ticks = Math.max(1, Math.ceilDiv(Math.max(0, delay.toNanos()), tickNanos));
+        long dueTick = tick + ticks;
+        // The bucket is visited every rotation; it expires on the visit after its remaining rounds
+        Entry<K, V> entry = new Entry<>(key, value, (int) Math.floorMod(dueTick, buckets.length), (ticks - 1) / buckets.length);
+        link(entry);
+        entries.put(key, entry);
+    }
+
+    /**
+     * Cancels the timeout scheduled for a key.
+     * @param key the key
+     * @return the value of the cancelled timeout, or null if none was scheduled
+     */
+    V cancel(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        return entry.value;
+    }
+
+    /**
+     * Advances the wheel by one tick.
+     * @return the values of the timeouts that expired, in no particular order
+     */
+    List<V> tick() {
+        tick++;
+        List<V> expired = new ArrayList<>();
+        Entry<K, V> entry = buckets[(int) Math.floorMod(tick, buckets.length)];
+        while (entry != null) {
+            Entry<K, V> next = entry.next;
+            if (entry.remainingRounds == 0) {
+                unlink(entry);
+                entries.remove(entry.key);
+                expired.add(entry.value);
+            } else {
+                entry.remainingRounds--;
+            }
+            entry = next;
+        }
+        return expired;
+    }
+
+    /**
+     * Gets the number of scheduled timeouts.
+     * @return scheduled timeout count
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private void link(Entry<K, V> entry) {
+        Entry<K, V> head = buckets[entry.bucket];
+        entry.next = head;
+        if (head != null) {
+            head.previous = entry;
+        }
+        buckets[entry.bucket] = entry;
+    }
+
+    private void unlink(Entry<K, V> entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            buckets[entry.bucket] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final int bucket;
+        private long remainingRounds;
+        private Entry<K, V> previous;
+        private Entry<K, V> next;
+
+        private Entry(K key, V value, int bucket, long remainingRounds) {
+            this.key = key;
+            this.value = value;
+            this.bucket = bucket;
+            this.remainingRounds = remainingRounds;
+        }
+    }
+}
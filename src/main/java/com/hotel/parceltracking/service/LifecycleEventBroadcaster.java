@@ -0,0 +1,245 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans lifecycle events out to Server-Sent Events subscribers.
+ * Events are received after their transaction commits, numbered, kept in a bounded
+ * replay buffer for Last-Event-ID resume, and offered to every subscriber's bounded queue.
+ * Publishing never blocks on a client: each subscriber's queue is drained by its own task
+ * on a virtual thread, and a subscriber that falls a whole queue behind is disconnected
+ * (it can resume from its last event ID).
+ */
+@Component
+public class LifecycleEventBroadcaster {
+
+    /**
+     * SSE event name telling a resuming client that events were missed and it must reload its state.
+     */
+    public static final String RESYNC_EVENT = "RESYNC";
+
+    // Queued in place of an event when a resuming client has missed events
+    private static final Object RESYNC_SIGNAL = new Object();
+
+    private final int replayBufferSize;
+    private final int subscriberQueueSize;
+    private final Duration emitterTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<LifecycleEventDto> replayBuffer = new ArrayDeque<>();
+    private long lastEventId;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public LifecycleEventBroadcaster(MeterRegistry meterRegistry,
+                                     @Value("${parcel-tracking.events.replay-buffer-size:1000}") int replayBufferSize,
+                                     @Value("${parcel-tracking.events.subscriber-queue-size:256}") int subscriberQueueSize,
+                                     @Value("${parcel-tracking.events.emitter-timeout:30m}") Duration emitterTimeout) {
+        this.replayBufferSize = replayBufferSize;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.emitterTimeout = emitterTimeout;
+
+        Gauge.builder("parcel.tracking.events.subscribers", subscribers, Set::size)
+                .description("Connected lifecycle event stream subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Numbers a committed event, buffers it for replay and queues it for every subscriber.
+     * Runs without a transaction when the event was published outside one.
+     * @param event the lifecycle event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(LifecycleEventDto event) {
+        lock.lock();
+        try {
+            event.setId(++lastEventId);
+            replayBuffer.addLast(event);
+            if (replayBuffer.size() > replayBufferSize) {
+                replayBuffer.removeFirst();
+            }
+            // Queued under the lock so every subscriber sees events in ID order
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens an event stream.
+     * @param lastEventId the last event the client received, or null for live events only
+     * @return the SSE emitter
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(emitterTimeout.toMillis()));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                Optional<List<LifecycleEventDto>> missed = eventsAfter(lastEventId);
+                if (missed.isPresent()) {
+                    missed.get().forEach(subscriber::offer);
+                } else {
+                    subscriber.offer(RESYNC_SIGNAL);
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Gets the buffered events after the given ID.
+     * @param lastEventId the last event ID a client received
+     * @return the newer events, or empty if some of them are no longer buffered
+     *         (or the ID is from before a restart)
+     */
+    public Optional<List<LifecycleEventDto>> eventsAfter(long lastEventId) {
+        lock.lock();
+        try {
+            long oldestBufferedId = replayBuffer.isEmpty() ? this.lastEventId + 1 : replayBuffer.getFirst().getId();
+            if (lastEventId < oldestBufferedId - 1 || lastEventId > this.lastEventId) {
+                return Optional.empty();
+            }
+            List<LifecycleEventDto> events = new ArrayList<>();
+            for (LifecycleEventDto event : replayBuffer) {
+                if (event.getId() > lastEventId) {
+                    events.add(event);
+                }
+            }
+            return Optional.of(events);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of connected subscribers.
+     * @return subscriber count
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Sends a comment to every subscriber so idle connections stay open through proxies
+     * and disconnected clients are detected.
+     */
+    @Scheduled(fixedRateString = "${parcel-tracking.events.heartbeat-interval:15s}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    /**
+     * A connected client with its own bounded queue and at most one running send task.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Room for a full replay on resume plus the live backlog
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(replayBufferSize + subscriberQueueSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Object eventOrSignal) {
+            if (!queue.offer(eventOrSignal)) {
+                // Too slow to keep up: drop the connection, the client resumes via Last-Event-ID
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleSend();
+        }
+
+        void heartbeat() {
+            if (queue.isEmpty()) {
+                senders.execute(() -> send(SseEmitter.event().comment("heartbeat")));
+            }
+        }
+
+        private void scheduleSend() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Object next;
+                while ((next = queue.poll()) != null) {
+                    if (!send(toSseEvent(next))) {
+                        return;
+                    }
+                }
+            } finally {
+                sending.set(false);
+                if (!queue.isEmpty() && subscribers.contains(this)) {
+                    scheduleSend();
+                }
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+
+        private SseEmitter.SseEventBuilder toSseEvent(Object next) {
+            if (next == RESYNC_SIGNAL) {
+                return SseEmitter.event().name(RESYNC_EVENT).data("Events were missed; reload the current state");
+            }
+            LifecycleEventDto event = (LifecycleEventDto) next;
+            return SseEmitter.event()
+                    .id(String.valueOf(event.getId()))
+                    .name(event.getType().name())
+                    .data(event);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.OverdueParcelDto;
+import com.hotel.parceltracking.dto.OverdueReason;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Flags parcels left uncollected past the collection SLA, and parcels whose guest checked
+ * out without collecting them, without rescanning the parcels table.
+ * Every uncollected parcel has its deadline (arrival time plus the SLA) scheduled on a
+ * {@link HashedTimingWheel}; collection cancels it and check-out flags the guest's parcels
+ * at once. Each tick expires the due parcels, flags them and publishes a
+ * {@link LifecycleEventType#PARCEL_OVERDUE} event for each, so the cost per parcel is O(1)
+ * whatever the size of the table.
+ * Built from the database at startup and kept in sync from the committed lifecycle events.
+ */
+@Component
+public class OverdueParcelTracker {
+
+    private final ParcelRepository parcelRepository;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration sla;
+
+    // Guarded by this
+    private final HashedTimingWheel<Long, ParcelDto> wheel;
+    private final Map<Long, Set<Long>> scheduledParcelIdsByGuest = new HashMap<>();
+
+    private final ConcurrentMap<Long, OverdueParcelDto> overdueParcels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OverdueParcelTracker(ParcelRepository parcelRepository,
+                                RoomOccupancyIndex roomOccupancyIndex,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${parcel-tracking.overdue.sla:48h}") Duration sla,
+                                @Value("${parcel-tracking.overdue.tick:1m}") Duration tick,
+                                @Value("${parcel-tracking.overdue.wheel-size:512}") int wheelSize) {
+        this.parcelRepository = parcelRepository;
+        this.roomOccupancyIndex = roomOccupancyIndex;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.sla = sla;
+        this.wheel = new HashedTimingWheel<>(wheelSize, tick);
+    }
+
+    /**
+     * Schedules the deadlines of the uncollected parcels in the database.
+     * Parcels already past their deadline, or whose guest has checked out, are flagged
+     * straight away without publishing events.
+     */
+    @PostConstruct
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ParcelDto> parcels = parcelRepository.streamUncollectedParcelDtos()) {
+                parcels.forEach(parcel -> {
+                    boolean guestCheckedIn = roomOccupancyIndex.findGuestId(parcel.getGuestRoomNumber())
+                            .filter(parcel.getGuestId()::equals)
+                            .isPresent();
+                    if (!guestCheckedIn) {
+                        flag(parcel, OverdueReason.GUEST_CHECKED_OUT, now);
+                    } else if (!deadline(parcel).isAfter(now)) {
+                        flag(parcel, OverdueReason.SLA_EXCEEDED, now);
+                    } else {
+                        schedule(parcel);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Schedules the deadline of an accepted parcel, cancels the deadline or clears the flag of a
+     * collected one, and flags the parcels a guest left uncollected at check-out, once the
+     * transaction of the event has committed.
+     * Runs without a transaction when the event was published outside one.
+     * @param event the lifecycle event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLifecycleEvent(LifecycleEventDto event) {
+        if (event.getType() == LifecycleEventType.PARCEL_ACCEPTED) {
+            schedule(event.getParcel());
+        } else if (event.getType() == LifecycleEventType.PARCEL_COLLECTED) {
+            clear(event.getParcel().getId());
+        } else if (event.getType() == LifecycleEventType.GUEST_CHECKED_OUT) {
+            flagGuestParcels(event.getGuest().getId()).forEach(this::publishOverdue);
+        }
+    }
+
+    /**
+     * Advances the timing wheel by one tick, flagging the parcels whose deadline has passed.
+     */
+    @Scheduled(fixedRateString = "${parcel-tracking.overdue.tick:1m}", initialDelayString = "${parcel-tracking.overdue.tick:1m}")
+    public void tick() {
+        List<ParcelDto> expired;
+        // Flagged under the lock so a collection committing meanwhile cannot leave a stale flag
+        synchronized (this) {
+            LocalDateTime now = LocalDateTime.now();
+            expired = wheel.tick();
+            expired.forEach(parcel -> {
+                removeFromGuest(parcel.getGuestId(), parcel.getId());
+                flag(parcel, OverdueReason.SLA_EXCEEDED, now);
+            });
+        }
+        expired.forEach(this::publishOverdue);
+    }
+
+    /**
+     * Gets the overdue parcels, earliest deadline first.
+     * @return overdue parcels
+     */
+    public List<OverdueParcelDto> getOverdueParcels() {
+        return overdueParcels.values().stream()
+                .sorted(Comparator.comparing(OverdueParcelDto::getDeadline)
+                        .thenComparing(overdue -> overdue.getParcel().getId()))
+                .toList();
+    }
+
+    /**
+     * Gets the number of overdue parcels.
+     * @return overdue parcel count
+     */
+    public int overdueCount() {
+        return overdueParcels.size();
+    }
+
+    /**
+     * Gets the number of parcels with a scheduled deadline.
+     * @return scheduled parcel count
+     */
+    public synchronized int scheduledCount() {
+        return wheel.size();
+    }
+
+    private LocalDateTime deadline(ParcelDto parcel) {
+        return parcel.getArrivalTime().plus(sla);
+    }
+
+    private synchronized void schedule(ParcelDto parcel) {
+        wheel.schedule(parcel.getId(), parcel, Duration.between(LocalDateTime.now(), deadline(parcel)));
+        scheduledParcelIdsByGuest.computeIfAbsent(parcel.getGuestId(), guestId -> new HashSet<>()).add(parcel.getId());
+    }
+
+    private synchronized void clear(Long parcelId) {
+        ParcelDto parcel = wheel.cancel(parcelId);
+        if (parcel != null) {
+            removeFromGuest(parcel.getGuestId(), parcelId);
+        }
+        overdueParcels.remove(parcelId);
+    }
+
+    private synchronized List<ParcelDto> flagGuestParcels(Long guestId) {
+        Set<Long> parcelIds = scheduledParcelIdsByGuest.remove(guestId);
+        if (parcelIds == null) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ParcelDto> parcels = new ArrayList<>(parcelIds.size());
+        for (Long parcelId : parcelIds) {
+            ParcelDto parcel = wheel.cancel(parcelId);
+            flag(parcel, OverdueReason.GUEST_CHECKED_OUT, now);
+            parcels.add(parcel);
+        }
+        return parcels;
+    }
+
+    private void removeFromGuest(Long guestId, Long parcelId) {
+        Set<Long> parcelIds = scheduledParcelIdsByGuest.get(guestId);
+        if (parcelIds != null && parcelIds.remove(parcelId) && parcelIds.isEmpty()) {
+            scheduledParcelIdsByGuest.remove(guestId);
+        }
+    }
+
+    private void flag(ParcelDto parcel, OverdueReason reason, LocalDateTime flaggedAt) {
+        overdueParcels.put(parcel.getId(), new OverdueParcelDto(parcel, reason, deadline(parcel), flaggedAt));
+    }
+
+    private void publishOverdue(ParcelDto parcel) {
+        eventPublisher.publishEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_OVERDUE, parcel));
+    }
+}
@@ -1,33 +1,87 @@
 package com.hotel.parceltracking.service;
 
+import com.hotel.parceltracking.config.CacheConfig;
+import com.hotel.parceltracking.config.MetricsConfig;
+import com.hotel.parceltracking.config.RetryOnConflict;
+import com.hotel.parceltracking.dto.CursorPageDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.OverdueParcelDto;
+import com.hotel.parceltracking.dto.ParcelBatchItemResultDto;
+import com.hotel.parceltracking.dto.ParcelBatchResultDto;
 import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.dto.ParcelStatisticsDto;
 import com.hotel.parceltracking.exception.BusinessLogicException;
 import com.hotel.parceltracking.exception.ResourceNotFoundException;
 import com.hotel.parceltracking.model.Guest;
 import com.hotel.parceltracking.model.Parcel;
 import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.repository.ParcelHistoryRepository;
 import com.hotel.parceltracking.repository.ParcelRepository;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing parcels.
  * Handles business logic for parcel acceptance, tracking, and collection operations.
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.95, 0.99}, histogram = true)
+@Counted(MetricsConfig.SERVICE_COUNTER)
 @Transactional
 public class ParcelService {
     
     private final ParcelRepository parcelRepository;
     private final GuestRepository guestRepository;
+    private final ParcelHistoryRepository parcelHistoryRepository;
+    private final TrackingNumberBloomFilter trackingNumberFilter;
+    private final ParcelStatistics parcelStatistics;
+    private final OverdueParcelTracker overdueParcelTracker;
+    private final TrackingNumberPrefixIndex trackingNumberPrefixIndex;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public ParcelService(ParcelRepository parcelRepository, GuestRepository guestRepository) {
+    public ParcelService(ParcelRepository parcelRepository, GuestRepository guestRepository,
+                         ParcelHistoryRepository parcelHistoryRepository,
+                         TrackingNumberBloomFilter trackingNumberFilter, ParcelStatistics parcelStatistics,
+                         OverdueParcelTracker overdueParcelTracker, TrackingNumberPrefixIndex trackingNumberPrefixIndex,
+                         CacheManager cacheManager, ApplicationEventPublisher eventPublisher) {
         this.parcelRepository = parcelRepository;
         this.guestRepository = guestRepository;
+        this.parcelHistoryRepository = parcelHistoryRepository;
+        this.trackingNumberFilter = trackingNumberFilter;
+        this.parcelStatistics = parcelStatistics;
+        this.overdueParcelTracker = overdueParcelTracker;
+        this.trackingNumberPrefixIndex = trackingNumberPrefixIndex;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -38,6 +92,7 @@ public class ParcelService {
      * @throws ResourceNotFoundException if guest not found
      * @throws BusinessLogicException if guest not checked in or tracking number already exists
      */
+    @CacheEvict(cacheNames = CacheConfig.PARCELS_BY_TRACKING_NUMBER, key = "#parcelDto.trackingNumber")
     public ParcelDto acceptParcel(ParcelDto parcelDto) {
         // Find the guest
         Guest guest = guestRepository.findById(parcelDto.getGuestId())
@@ -48,29 +103,132 @@ public class ParcelService {
             throw new BusinessLogicException("Cannot accept parcel for guest who is not checked in: " + guest.getName());
         }
         
-        // Check if tracking number already exists
-        if (parcelRepository.findByTrackingNumber(parcelDto.getTrackingNumber()).isPresent()) {
-            throw new BusinessLogicException("Parcel with tracking number " + parcelDto.getTrackingNumber() + " already exists");
+        // Check if tracking number already exists; the filter lets almost all new numbers skip the query
+        String trackingNumber = parcelDto.getTrackingNumber();
+        if (trackingNumberFilter.mightContain(trackingNumber)) {
+            if (parcelRepository.findByTrackingNumber(trackingNumber).isPresent()) {
+                throw new BusinessLogicException(duplicateTrackingNumberMessage(trackingNumber));
+            }
+            trackingNumberFilter.recordFalsePositive();
         }
         
         Parcel parcel = new Parcel(
-            parcelDto.getTrackingNumber(),
+            trackingNumber,
             parcelDto.getSender(),
             parcelDto.getDescription(),
             guest
         );
         
-        Parcel savedParcel = parcelRepository.save(parcel);
-        return convertToDto(savedParcel);
+        // Flush now so a concurrent duplicate hits the unique constraint inside this method
+        Parcel savedParcel;
+        try {
+            savedParcel = parcelRepository.saveAndFlush(parcel);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessLogicException(duplicateTrackingNumberMessage(trackingNumber), e);
+        }
+        ParcelDto acceptedParcel = convertToDto(savedParcel);
+        eventPublisher.publishEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_ACCEPTED, acceptedParcel));
+        return acceptedParcel;
+    }
+    
+    /**
+     * Accepts a batch of parcels, e.g. a whole courier drop-off, in one transaction.
+     * Guests and tracking numbers are validated with one set-based query each and the
+     * accepted parcels are inserted with JDBC batching. Invalid parcels are rejected
+     * individually without failing the rest of the batch.
+     * If another request accepts one of the tracking numbers concurrently, the insert hits the
+     * unique constraint and the batch is retried, and the retry rejects that parcel as a duplicate.
+     * @param parcelDtos the parcels to accept
+     * @return the outcome of every parcel, in request order
+     */
+    @RetryOnConflict
+    public ParcelBatchResultDto acceptParcels(List<ParcelDto> parcelDtos) {
+        Set<Long> guestIds = parcelDtos.stream()
+                .map(ParcelDto::getGuestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Guest> guestsById = guestRepository.findAllById(guestIds).stream()
+                .collect(Collectors.toMap(Guest::getId, Function.identity()));
+        
+        // Only tracking numbers the filter cannot rule out need checking against the database; a retry
+        // checks them all, as the filter may not hold the number that was accepted concurrently yet
+        boolean retry = RetrySynchronizationManager.getContext() != null && RetrySynchronizationManager.getContext().getRetryCount() > 0;
+        Set<String> possiblyExistingTrackingNumbers = parcelDtos.stream()
+                .map(ParcelDto::getTrackingNumber)
+                .filter(trackingNumber -> retry || trackingNumberFilter.mightContain(trackingNumber))
+                .collect(Collectors.toSet());
+        Set<String> existingTrackingNumbers = possiblyExistingTrackingNumbers.isEmpty()
+                ? Set.of()
+                : new HashSet<>(parcelRepository.findExistingTrackingNumbers(possiblyExistingTrackingNumbers));
+        if (!retry && possiblyExistingTrackingNumbers.size() > existingTrackingNumbers.size()) {
+            trackingNumberFilter.recordFalsePositives(possiblyExistingTrackingNumbers.size() - existingTrackingNumbers.size());
+        }
+        
+        ParcelBatchItemResultDto[] results = new ParcelBatchItemResultDto[parcelDtos.size()];
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<Parcel> pendingParcels = new ArrayList<>();
+        Set<String> seenTrackingNumbers = new HashSet<>();
+        
+        for (int i = 0; i < parcelDtos.size(); i++) {
+            ParcelDto parcelDto = parcelDtos.get(i);
+            String trackingNumber = parcelDto.getTrackingNumber();
+            Guest guest = guestsById.get(parcelDto.getGuestId());
+            
+            if (guest == null) {
+                results[i] = ParcelBatchItemResultDto.rejected(i, trackingNumber, "Guest not found with ID: " + parcelDto.getGuestId());
+            } else if (!guest.isCheckedIn()) {
+                results[i] = ParcelBatchItemResultDto.rejected(i, trackingNumber, "Cannot accept parcel for guest who is not checked in: " + guest.getName());
+            } else if (existingTrackingNumbers.contains(trackingNumber)) {
+                results[i] = ParcelBatchItemResultDto.rejected(i, trackingNumber, duplicateTrackingNumberMessage(trackingNumber));
+            } else if (!seenTrackingNumbers.add(trackingNumber)) {
+                results[i] = ParcelBatchItemResultDto.rejected(i, trackingNumber, "Tracking number " + trackingNumber + " appears more than once in the batch");
+            } else {
+                pendingIndexes.add(i);
+                pendingParcels.add(new Parcel(trackingNumber, parcelDto.getSender(), parcelDto.getDescription(), guest));
+            }
+        }
+        
+        // Flush now so a concurrent duplicate hits the unique constraint inside this method
+        List<Parcel> savedParcels;
+        try {
+            savedParcels = parcelRepository.saveAllAndFlush(pendingParcels);
+        } catch (DataIntegrityViolationException e) {
+            throw new OptimisticLockingFailureException("A tracking number in the batch was accepted concurrently", e);
+        }
+        // Evicted once the transaction commits, as acceptParcel does for its single number
+        Cache cache = cacheManager.getCache(CacheConfig.PARCELS_BY_TRACKING_NUMBER);
+        for (int i = 0; i < savedParcels.size(); i++) {
+            int index = pendingIndexes.get(i);
+            Parcel savedParcel = savedParcels.get(i);
+            if (cache != null) {
+                cache.evict(savedParcel.getTrackingNumber());
+            }
+            ParcelDto acceptedParcel = convertToDto(savedParcel);
+            eventPublisher.publishEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_ACCEPTED, acceptedParcel));
+            results[index] = ParcelBatchItemResultDto.accepted(index, acceptedParcel);
+        }
+        
+        return new ParcelBatchResultDto(savedParcels.size(), parcelDtos.size() - savedParcels.size(), Arrays.asList(results));
+    }
+    
+    /**
+     * Builds the error message for a tracking number that is already in use.
+     */
+    private static String duplicateTrackingNumberMessage(String trackingNumber) {
+        return "Parcel with tracking number " + trackingNumber + " already exists";
     }
     
     /**
      * Marks a parcel as collected.
+     * If another desk collects it concurrently, the losing write fails its version check and is
+     * retried, and the retry reports the parcel as already collected.
      * @param parcelId the parcel ID
      * @return the collected parcel
      * @throws ResourceNotFoundException if parcel not found
      * @throws BusinessLogicException if parcel already collected
      */
+    @CacheEvict(cacheNames = CacheConfig.PARCELS_BY_TRACKING_NUMBER, key = "#result.trackingNumber")
+    @RetryOnConflict
     public ParcelDto collectParcel(Long parcelId) {
         Parcel parcel = parcelRepository.findById(parcelId)
                 .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with ID: " + parcelId));
@@ -80,23 +238,36 @@ public class ParcelService {
         }
         
         parcel.markAsCollected();
-        Parcel savedParcel = parcelRepository.save(parcel);
+        // Flush now so a concurrent collection fails the version check here and is retried
+        Parcel savedParcel = parcelRepository.saveAndFlush(parcel);
         
-        return convertToDto(savedParcel);
+        ParcelDto collectedParcel = convertToDto(savedParcel);
+        eventPublisher.publishEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_COLLECTED, collectedParcel));
+        return collectedParcel;
     }
     
     /**
      * Marks a parcel as collected by tracking number.
+     * Collects with a conditional update, then reads the collected parcel back with one DTO select; when
+     * nothing was updated, a query tells a missing parcel apart from one that is already collected.
+     * The update is atomic, so concurrent pickups of the same parcel need no retry.
      * @param trackingNumber the tracking number
      * @return the collected parcel
      * @throws ResourceNotFoundException if parcel not found
      * @throws BusinessLogicException if parcel already collected
      */
+    @CacheEvict(cacheNames = CacheConfig.PARCELS_BY_TRACKING_NUMBER, key = "#trackingNumber")
     public ParcelDto collectParcelByTrackingNumber(String trackingNumber) {
-        Parcel parcel = parcelRepository.findByTrackingNumber(trackingNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with tracking number: " + trackingNumber));
+        if (parcelRepository.collectByTrackingNumber(trackingNumber, LocalDateTime.now()) == 0) {
+            throw parcelRepository.existsByTrackingNumber(trackingNumber)
+                    ? new BusinessLogicException("Parcel is already collected")
+                    : new ResourceNotFoundException("Parcel not found with tracking number: " + trackingNumber);
+        }
         
-        return collectParcel(parcel.getId());
+        ParcelDto collectedParcel = parcelRepository.findParcelDtoByTrackingNumber(trackingNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with tracking number: " + trackingNumber));
+        eventPublisher.publishEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_COLLECTED, collectedParcel));
+        return collectedParcel;
     }
     
     /**
@@ -106,9 +277,7 @@ public class ParcelService {
      */
     @Transactional(readOnly = true)
     public List<ParcelDto> getAvailableParcelsForGuest(Long guestId) {
-        return parcelRepository.findUncollectedParcelsByGuestId(guestId).stream()
-                .map(this::convertToDto)
-                .toList();
+        return parcelRepository.findUncollectedParcelDtosByGuestId(guestId);
     }
     
     /**
@@ -118,20 +287,20 @@ public class ParcelService {
      */
     @Transactional(readOnly = true)
     public List<ParcelDto> getAvailableParcelsForGuestByRoomNumber(String roomNumber) {
-        return parcelRepository.findUncollectedParcelsByGuestRoomNumber(roomNumber).stream()
-                .map(this::convertToDto)
-                .toList();
+        return parcelRepository.findUncollectedParcelDtosByGuestRoomNumber(roomNumber);
     }
     
     /**
-     * Gets all uncollected parcels in the system.
-     * @return list of all uncollected parcels
+     * Gets one page of uncollected parcels in the system, ordered by ID.
+     * @param afterId cursor from the previous page, or null for the first page
+     * @param size the page size
+     * @return page of uncollected parcels
      */
     @Transactional(readOnly = true)
-    public List<ParcelDto> getAllUncollectedParcels() {
-        return parcelRepository.findAllUncollectedParcels().stream()
-                .map(this::convertToDto)
-                .toList();
+    public CursorPageDto<ParcelDto> getUncollectedParcels(Long afterId, int size) {
+        Slice<ParcelDto> slice = parcelRepository.findUncollectedParcelDtosAfter(
+                afterId == null ? 0L : afterId, PageRequest.of(0, size));
+        return CursorPageDto.of(slice.getContent(), slice.hasNext(), ParcelDto::getId);
     }
     
     /**
@@ -140,33 +309,152 @@ public class ParcelService {
      */
     @Transactional(readOnly = true)
     public List<ParcelDto> getParcelsForCheckedInGuests() {
-        return parcelRepository.findParcelsForCheckedInGuests().stream()
-                .map(this::convertToDto)
-                .toList();
+        return parcelRepository.findParcelDtosForCheckedInGuests();
+    }
+    
+    /**
+     * Gets one page of all parcels in the system, ordered by ID.
+     * @param afterId cursor from the previous page, or null for the first page
+     * @param size the page size
+     * @return page of parcels
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ParcelDto> getParcels(Long afterId, int size) {
+        Slice<ParcelDto> slice = parcelRepository.findParcelDtosAfter(
+                afterId == null ? 0L : afterId, PageRequest.of(0, size));
+        return CursorPageDto.of(slice.getContent(), slice.hasNext(), ParcelDto::getId);
     }
     
     /**
-     * Gets all parcels in the system.
-     * @return list of all parcels
+     * Gets one page of all parcels, active and archived, ordered by ID.
+     * @param afterId cursor from the previous page, or null for the first page
+     * @param size the page size
+     * @return page of active and archived parcels
      */
     @Transactional(readOnly = true)
-    public List<ParcelDto> getAllParcels() {
-        return parcelRepository.findAll().stream()
-                .map(this::convertToDto)
-                .toList();
+    public CursorPageDto<ParcelDto> getParcelsIncludingHistory(Long afterId, int size) {
+        long after = afterId == null ? 0L : afterId;
+        Slice<ParcelDto> active = parcelRepository.findParcelDtosAfter(after, PageRequest.of(0, size));
+        Slice<ParcelDto> archived = parcelHistoryRepository.findParcelDtosAfter(after, PageRequest.of(0, size));
+        return CursorPageDto.merge(active.getContent(), active.hasNext(),
+                archived.getContent(), archived.hasNext(), size, ParcelDto::getId);
+    }
+    
+    /**
+     * Gets live parcel statistics from the in-memory counters, without querying the database.
+     * @return uncollected parcels per room, dwell times and hourly arrivals
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ParcelStatisticsDto getStatistics() {
+        return parcelStatistics.snapshot();
+    }
+    
+    /**
+     * Gets the parcels flagged as overdue, from the in-memory tracker.
+     * @return uncollected parcels past the collection SLA or left behind at check-out, earliest deadline first
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<OverdueParcelDto> getOverdueParcels() {
+        return overdueParcelTracker.getOverdueParcels();
+    }
+    
+    /**
+     * Suggests tracking numbers of uncollected parcels from their first characters, from the in-memory index.
+     * @param prefix the first characters of the tracking number, in any case
+     * @param limit maximum number of suggestions
+     * @return matching tracking numbers in alphabetical order, ignoring case
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<String> suggestTrackingNumbers(String prefix, int limit) {
+        return trackingNumberPrefixIndex.suggest(prefix, limit);
     }
     
     /**
      * Finds a parcel by tracking number.
+     * Served from the tracking number cache when possible; writes evict the entry.
+     * Every call returns its own copy, so callers cannot change the cached parcel.
      * @param trackingNumber the tracking number
      * @return the parcel if found
      * @throws ResourceNotFoundException if parcel not found
      */
     @Transactional(readOnly = true)
     public ParcelDto getParcelByTrackingNumber(String trackingNumber) {
-        Parcel parcel = parcelRepository.findByTrackingNumber(trackingNumber)
+        Cache cache = cacheManager.getCache(CacheConfig.PARCELS_BY_TRACKING_NUMBER);
+        if (cache == null) {
+            return loadParcelDto(trackingNumber);
+        }
+        // Loaded atomically per key, so an eviction by a concurrent write waits for the load and removes it
+        try {
+            return cache.get(trackingNumber, () -> loadParcelDto(trackingNumber)).copy();
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof ResourceNotFoundException notFound) {
+                throw notFound;
+            }
+            throw e;
+        }
+    }
+
+    private ParcelDto loadParcelDto(String trackingNumber) {
+        return parcelRepository.findParcelDtoByTrackingNumber(trackingNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with tracking number: " + trackingNumber));
-        return convertToDto(parcel);
+    }
+    
+    /**
+     * Finds a parcel by tracking number, falling back to the most recent archived parcel.
+     * Not cached: archived parcels are looked up rarely.
+     * @param trackingNumber the tracking number
+     * @return the active parcel, or the most recent archived one
+     * @throws ResourceNotFoundException if no active or archived parcel has the tracking number
+     */
+    @Transactional(readOnly = true)
+    public ParcelDto getParcelByTrackingNumberIncludingHistory(String trackingNumber) {
+        return parcelRepository.findParcelDtoByTrackingNumber(trackingNumber)
+                .or(() -> parcelHistoryRepository.findParcelDtosByTrackingNumber(trackingNumber).stream().findFirst())
+                .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with tracking number: " + trackingNumber));
+    }
+    
+    /**
+     * Gets the parcels of a set of guests, grouped by guest ID.
+     * @param guestIds the guest IDs
+     * @return parcels by guest ID; guests without parcels are absent from the map
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<ParcelDto>> getParcelsByGuestIds(Collection<Long> guestIds) {
+        if (guestIds.isEmpty()) {
+            return Map.of();
+        }
+        return parcelRepository.findParcelDtosByGuestIds(guestIds).stream()
+                .collect(Collectors.groupingBy(ParcelDto::getGuestId));
+    }
+    
+    /**
+     * Gets the active and archived parcels of a set of guests, grouped by guest ID.
+     * @param guestIds the guest IDs
+     * @return parcels by guest ID, each list ordered by ID; guests without parcels are absent from the map
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<ParcelDto>> getParcelsByGuestIdsIncludingHistory(Collection<Long> guestIds) {
+        if (guestIds.isEmpty()) {
+            return Map.of();
+        }
+        List<ParcelDto> parcels = new ArrayList<>(parcelRepository.findParcelDtosByGuestIds(guestIds));
+        parcels.addAll(parcelHistoryRepository.findParcelDtosByGuestIds(guestIds));
+        parcels.sort(Comparator.comparing(ParcelDto::getId));
+        return parcels.stream().collect(Collectors.groupingBy(ParcelDto::getGuestId));
+    }
+    
+    /**
+     * Gets the uncollected parcels of a set of guests, grouped by guest ID.
+     * @param guestIds the guest IDs
+     * @return uncollected parcels by guest ID; guests without any are absent from the map
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<ParcelDto>> getUncollectedParcelsByGuestIds(Collection<Long> guestIds) {
+        if (guestIds.isEmpty()) {
+            return Map.of();
+        }
+        return parcelRepository.findUncollectedParcelDtosByGuestIds(guestIds).stream()
+                .collect(Collectors.groupingBy(ParcelDto::getGuestId));
     }
     
     /**
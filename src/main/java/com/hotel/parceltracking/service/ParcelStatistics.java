@@ -0,0 +1,263 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.HourlyArrivalsDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.dto.ParcelStatisticsDto;
+import com.hotel.parceltracking.repository.ParcelHistoryRepository;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Live parcel statistics, kept in memory so reading them needs no database query.
+ * Built from the database at startup and updated in O(1) per accepted or collected parcel
+ * from the committed lifecycle events.
+ * <p>
+ * Dwell times go into a log-scale histogram with {@value #BUCKETS_PER_DOUBLING} buckets per
+ * doubling, so the p95 is reported within about 5% of the exact value. Arrivals are counted
+ * per clock hour over the last {@value #ARRIVAL_HOURS} hours.
+ */
+@Component
+public class ParcelStatistics {
+
+    static final int BUCKETS_PER_DOUBLING = 8;
+    static final int ARRIVAL_HOURS = 24;
+    // Bucket 0 holds dwell times under a second; the last bucket everything from 2^30 s (34 years) up
+    private static final int DWELL_BUCKETS = 30 * BUCKETS_PER_DOUBLING + 2;
+
+    private final ParcelRepository parcelRepository;
+    private final ParcelHistoryRepository parcelHistoryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ConcurrentMap<String, Long> uncollectedByRoom = new ConcurrentHashMap<>();
+    private final AtomicLong totalUncollected = new AtomicLong();
+    private final AtomicLongArray dwellBuckets = new AtomicLongArray(DWELL_BUCKETS);
+    private final LongAdder dwellSecondsSum = new LongAdder();
+    // Ring of per-hour arrival counts, indexed by epoch hour modulo its length
+    private final long[] arrivalHours = new long[ARRIVAL_HOURS];
+    private final long[] arrivalCounts = new long[ARRIVAL_HOURS];
+
+    @Autowired
+    public ParcelStatistics(ParcelRepository parcelRepository, ParcelHistoryRepository parcelHistoryRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.parcelRepository = parcelRepository;
+        this.parcelHistoryRepository = parcelHistoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuilds the statistics from the active and archived parcels in the database.
+     * Runs at startup, before parcels are accepted or collected.
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        uncollectedByRoom.clear();
+        totalUncollected.set(0);
+        for (int i = 0; i < DWELL_BUCKETS; i++) {
+            dwellBuckets.set(i, 0);
+        }
+        dwellSecondsSum.reset();
+        resetArrivals();
+
+        LocalDateTime arrivalWindowStart = LocalDateTime.now().minusHours(ARRIVAL_HOURS);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            parcelRepository.countUncollectedParcelsByRoom()
+                    .forEach(room -> addUncollected(room.getRoomNumber(), room.getParcelCount()));
+            try (Stream<ParcelRepository.ParcelTimes> times = parcelRepository.streamParcelTimes(arrivalWindowStart)) {
+                times.forEach(this::load);
+            }
+            try (Stream<ParcelRepository.ParcelTimes> times = parcelHistoryRepository.streamParcelTimes()) {
+                times.forEach(this::load);
+            }
+        });
+    }
+
+    /**
+     * Counts a parcel acceptance or collection once its transaction has committed.
+     * Runs without a transaction when the event was published outside one.
+     * @param event the lifecycle event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLifecycleEvent(LifecycleEventDto event) {
+        if (event.getType() == LifecycleEventType.PARCEL_ACCEPTED) {
+            recordAccepted(event.getParcel());
+        } else if (event.getType() == LifecycleEventType.PARCEL_COLLECTED) {
+            recordCollected(event.getParcel());
+        }
+    }
+
+    /**
+     * Records an accepted parcel.
+     * @param parcel the accepted parcel
+     */
+    void recordAccepted(ParcelDto parcel) {
+        addUncollected(parcel.getGuestRoomNumber(), 1);
+        recordArrival(parcel.getArrivalTime());
+    }
+
+    /**
+     * Records a collected parcel.
+     * @param parcel the collected parcel
+     */
+    void recordCollected(ParcelDto parcel) {
+        addUncollected(parcel.getGuestRoomNumber(), -1);
+        recordDwell(parcel.getArrivalTime(), parcel.getCollectionTime());
+    }
+
+    /**
+     * Gets the number of uncollected parcels.
+     * @return uncollected parcel count
+     */
+    public long totalUncollected() {
+        return totalUncollected.get();
+    }
+
+    /**
+     * Takes a snapshot of the statistics.
+     * @return the current statistics
+     */
+    public ParcelStatisticsDto snapshot() {
+        long[] buckets = new long[DWELL_BUCKETS];
+        long collected = 0;
+        for (int i = 0; i < DWELL_BUCKETS; i++) {
+            buckets[i] = dwellBuckets.get(i);
+            collected += buckets[i];
+        }
+        Double averageDwellSeconds = null;
+        Double p95DwellSeconds = null;
+        if (collected > 0) {
+            averageDwellSeconds = (double) dwellSecondsSum.sum() / collected;
+            p95DwellSeconds = percentile(buckets, collected, 0.95);
+        }
+
+        return new ParcelStatisticsDto(
+            totalUncollected.get(),
+            new TreeMap<>(uncollectedByRoom),
+            collected,
+            averageDwellSeconds,
+            p95DwellSeconds,
+            arrivalsPerHour()
+        );
+    }
+
+    private void load(ParcelRepository.ParcelTimes times) {
+        if (times.getCollectionTime() != null) {
+            recordDwell(times.getArrivalTime(), times.getCollectionTime());
+        }
+        recordArrival(times.getArrivalTime());
+    }
+
+    private void addUncollected(String roomNumber, long delta) {
+        if (delta > 0) {
+            uncollectedByRoom.merge(roomNumber, delta, Long::sum);
+            totalUncollected.addAndGet(delta);
+            return;
+        }
+        // Rooms without uncollected parcels are removed rather than kept at zero
+        uncollectedByRoom.computeIfPresent(roomNumber, (room, count) -> {
+            long removed = Math.min(count, -delta);
+            totalUncollected.addAndGet(-removed);
+            return count > removed ? count - removed : null;
+        });
+    }
+
+    private void recordDwell(LocalDateTime arrivalTime, LocalDateTime collectionTime) {
+        long seconds = Math.max(0, Duration.between(arrivalTime, collectionTime).getSeconds());
+        dwellBuckets.incrementAndGet(dwellBucket(seconds));
+        dwellSecondsSum.add(seconds);
+    }
+
+    /**
+     * Gets the histogram bucket of a dwell time: bucket 0 below one second, then bucket i
+     * for [2^((i-1)/n), 2^(i/n)) seconds with n buckets per doubling.
+     */
+    static int dwellBucket(long seconds) {
+        if (seconds < 1) {
+            return 0;
+        }
+        int bucket = 1 + (int) Math.floor(Math.log(seconds) / Math.log(2) * BUCKETS_PER_DOUBLING);
+        return Math.min(bucket, DWELL_BUCKETS - 1);
+    }
+
+    /**
+     * Gets the representative dwell time of a bucket: the geometric midpoint of its bounds.
+     */
+    static double dwellBucketSeconds(int bucket) {
+        if (bucket == 0) {
+            return 0.5;
+        }
+        return Math.pow(2, (bucket - 0.5) / BUCKETS_PER_DOUBLING);
+    }
+
+    private static double percentile(long[] buckets, long count, double percentile) {
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return dwellBucketSeconds(i);
+            }
+        }
+        return dwellBucketSeconds(buckets.length - 1);
+    }
+
+    private synchronized void recordArrival(LocalDateTime arrivalTime) {
+        long hour = epochHour(arrivalTime);
+        long currentHour = epochHour(LocalDateTime.now());
+        if (hour <= currentHour - ARRIVAL_HOURS || hour > currentHour) {
+            return;
+        }
+        int slot = (int) Math.floorMod(hour, ARRIVAL_HOURS);
+        if (arrivalHours[slot] != hour) {
+            // The slot last counted an hour that has since left the window
+            arrivalHours[slot] = hour;
+            arrivalCounts[slot] = 0;
+        }
+        arrivalCounts[slot]++;
+    }
+
+    private synchronized List<HourlyArrivalsDto> arrivalsPerHour() {
+        long currentHour = epochHour(LocalDateTime.now());
+        List<HourlyArrivalsDto> arrivals = new ArrayList<>(ARRIVAL_HOURS);
+        for (long hour = currentHour - ARRIVAL_HOURS + 1; hour <= currentHour; hour++) {
+            int slot = (int) Math.floorMod(hour, ARRIVAL_HOURS);
+            long count = arrivalHours[slot] == hour ? arrivalCounts[slot] : 0;
+            arrivals.add(new HourlyArrivalsDto(LocalDateTime.ofEpochSecond(hour * 3600, 0, ZoneOffset.UTC), count));
+        }
+        return arrivals;
+    }
+
+    private synchronized void resetArrivals() {
+        for (int i = 0; i < ARRIVAL_HOURS; i++) {
+            arrivalHours[i] = -1;
+            arrivalCounts[i] = 0;
+        }
+    }
+
+    /**
+     * Numbers the clock hour of a local time; times are local throughout, so no zone applies.
+     */
+    private static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+}
@@ -0,0 +1,73 @@
+package com.hotel.parceltracking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-room locks that serialize check-ins for the same room without serializing the desk.
+ * A room maps to one of a fixed number of locks, so check-ins for different rooms almost never
+ * contend. A lock is held until the surrounding transaction completes, so the next check-in for
+ * the room sees the committed occupancy. The unique constraint on the active room number remains
+ * the final safety net (e.g. for other writers of the guests table).
+ */
+@Component
+public class RoomLockStripes {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    @Autowired
+    public RoomLockStripes(@Value("${parcel-tracking.check-in.lock-stripes:64}") int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Lock stripe count must be positive");
+        }
+        // Round up to a power of two so a stripe is picked with a mask
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Locks the room's stripe until the current transaction commits or rolls back.
+     * @param roomNumber the room number
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lockUntilCompletion(String roomNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Room locks must be taken inside a transaction");
+        }
+        ReentrantLock lock = stripeFor(roomNumber);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Gets the number of lock stripes.
+     * @return stripe count (a power of two)
+     */
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    private ReentrantLock stripeFor(String roomNumber) {
+        int hash = roomNumber.hashCode();
+        // Spread high bits into the low bits the mask keeps, as HashMap does
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+}
@@ -0,0 +1,81 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.repository.GuestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory index of room occupancy (room number to the ID of the checked-in guest).
+ * Built from the database at startup and kept in sync by {@link GuestService}, so room
+ * status checks and room-based lookups need no database round-trip.
+ */
+@Component
+public class RoomOccupancyIndex {
+    
+    private final GuestRepository guestRepository;
+    private final ConcurrentMap<String, Long> guestIdByRoom = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public RoomOccupancyIndex(GuestRepository guestRepository) {
+        this.guestRepository = guestRepository;
+    }
+    
+    /**
+     * Rebuilds the index from the checked-in guests in the database.
+     */
+    @PostConstruct
+    public void rebuild() {
+        guestIdByRoom.clear();
+        guestRepository.findRoomOccupants()
+                .forEach(occupant -> guestIdByRoom.put(occupant.getRoomNumber(), occupant.getId()));
+    }
+    
+    /**
+     * Checks if a room is currently occupied.
+     * @param roomNumber the room number
+     * @return true if a guest is checked into the room
+     */
+    public boolean isOccupied(String roomNumber) {
+        return guestIdByRoom.containsKey(roomNumber);
+    }
+    
+    /**
+     * Finds the ID of the guest currently checked into a room.
+     * @param roomNumber the room number
+     * @return Optional containing the guest ID if the room is occupied
+     */
+    public Optional<Long> findGuestId(String roomNumber) {
+        return Optional.ofNullable(guestIdByRoom.get(roomNumber));
+    }
+    
+    /**
+     * Records a check-in. Applied once the current transaction commits.
+     * @param roomNumber the room number
+     * @param guestId the checked-in guest ID
+     */
+    public void occupy(String roomNumber, Long guestId) {
+        TransactionCallbacks.afterCommit(() -> guestIdByRoom.put(roomNumber, guestId));
+    }
+    
+    /**
+     * Records a check-out. Applied once the current transaction commits.
+     * @param roomNumber the room number
+     * @param guestId the checked-out guest ID
+     */
+    public void vacate(String roomNumber, Long guestId) {
+        TransactionCallbacks.afterCommit(() -> guestIdByRoom.remove(roomNumber, guestId));
+    }
+    
+    /**
+     * Gets the number of occupied rooms.
+     * @return occupied room count
+     */
+    public int occupiedRoomCount() {
+        return guestIdByRoom.size();
+    }
+}
@@ -0,0 +1,269 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over all tracking numbers in the parcels table.
+ * Lets parcel acceptance skip the duplicate-check query when a tracking number is
+ * definitely new; a "maybe present" answer falls back to the database, and the
+ * unique constraint on tracking_number remains the final safety net.
+ * Sized from configuration and rebuilt from the database at startup or on demand; accepted
+ * tracking numbers are added from the committed lifecycle events.
+ */
+@Component
+public class TrackingNumberBloomFilter {
+
+    private final ParcelRepository parcelRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+
+    private final Counter definitelyAbsentChecks;
+    private final Counter maybePresentChecks;
+    private final Counter falsePositives;
+
+    private volatile BitArray bits;
+    // Receives concurrent insertions while a rebuild is loading, so none are lost on swap
+    private volatile BitArray rebuildingBits;
+
+    @Autowired
+    public TrackingNumberBloomFilter(ParcelRepository parcelRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${parcel-tracking.tracking-number-filter.expected-insertions:1000000}") long expectedInsertions,
+                                     @Value("${parcel-tracking.tracking-number-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.parcelRepository = parcelRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bits = BitArray.sizedFor(expectedInsertions, falsePositiveProbability);
+
+        this.definitelyAbsentChecks = Counter.builder("parcel.tracking.filter.checks")
+                .description("Tracking number filter lookups")
+                .tag("result", "definitely_absent")
+                .register(meterRegistry);
+        this.maybePresentChecks = Counter.builder("parcel.tracking.filter.checks")
+                .description("Tracking number filter lookups")
+                .tag("result", "maybe_present")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("parcel.tracking.filter.false.positives")
+                .description("Lookups answered 'maybe present' for a tracking number that did not exist")
+                .register(meterRegistry);
+        Gauge.builder("parcel.tracking.filter.fill.ratio", this, TrackingNumberBloomFilter::fillRatio)
+                .description("Fraction of filter bits set")
+                .register(meterRegistry);
+        Gauge.builder("parcel.tracking.filter.estimated.fpp", this, TrackingNumberBloomFilter::estimatedFalsePositiveProbability)
+                .description("False-positive probability estimated from the fill ratio")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds the filter from the tracking numbers in the database.
+     * The new filter is sized for at least twice the current row count, loaded off to the side
+     * and swapped in whole once complete; numbers added meanwhile go into both filters.
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        long rowCount = parcelRepository.count();
+        BitArray next = BitArray.sizedFor(Math.max(expectedInsertions, rowCount * 2), falsePositiveProbability);
+        rebuildingBits = next;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> trackingNumbers = parcelRepository.streamAllTrackingNumbers()) {
+                    trackingNumbers.forEach(next::put);
+                }
+            });
+            bits = next;
+        } finally {
+            rebuildingBits = null;
+        }
+    }
+
+    /**
+     * Checks if a tracking number may already exist.
+     * @param trackingNumber the tracking number
+     * @return false if the tracking number definitely does not exist, true if it may exist
+     */
+    public boolean mightContain(String trackingNumber) {
+        boolean maybePresent = bits.mightContain(trackingNumber);
+        (maybePresent ? maybePresentChecks : definitelyAbsentChecks).increment();
+        return maybePresent;
+    }
+
+    /**
+     * Adds the tracking number of an accepted parcel once its transaction has committed.
+     * Runs without a transaction when the event was published outside one.
+     * @param event the lifecycle event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLifecycleEvent(LifecycleEventDto event) {
+        if (event.getType() == LifecycleEventType.PARCEL_ACCEPTED) {
+            put(event.getParcel().getTrackingNumber());
+        }
+    }
+
+    /**
+     * Adds a tracking number to the filter.
+     * @param trackingNumber the tracking number of a committed parcel
+     */
+    public void put(String trackingNumber) {
+        // Rebuild first: a number added before a rebuild starts is already committed, so the
+        // rebuild reads it from the database; one added later also goes into the new filter
+        BitArray rebuilding = rebuildingBits;
+        bits.put(trackingNumber);
+        if (rebuilding != null) {
+            rebuilding.put(trackingNumber);
+        }
+    }
+
+    /**
+     * Records that a "maybe present" answer turned out to be wrong after checking the database.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Records several "maybe present" answers that turned out to be wrong, e.g. for a batch.
+     * @param count the number of false positives
+     */
+    public void recordFalsePositives(int count) {
+        falsePositives.increment(count);
+    }
+
+    /**
+     * Gets the fraction of bits set in the filter.
+     * @return fill ratio between 0 and 1
+     */
+    public double fillRatio() {
+        return bits.fillRatio();
+    }
+
+    /**
+     * Estimates the current false-positive probability from the fill ratio.
+     * @return estimated false-positive probability between 0 and 1
+     */
+    public double estimatedFalsePositiveProbability() {
+        BitArray current = bits;
+        return Math.pow(current.fillRatio(), current.numHashes);
+    }
+
+    /**
+     * Gets the filter sizing and effectiveness statistics.
+     * @return statistics by name
+     */
+    public Map<String, Object> statistics() {
+        BitArray current = bits;
+        double maybePresent = maybePresentChecks.count();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("expectedInsertions", current.expectedInsertions);
+        statistics.put("insertions", current.insertions.sum());
+        statistics.put("bits", current.numBits);
+        statistics.put("hashFunctions", current.numHashes);
+        statistics.put("fillRatio", current.fillRatio());
+        statistics.put("estimatedFalsePositiveProbability", Math.pow(current.fillRatio(), current.numHashes));
+        statistics.put("definitelyAbsentChecks", (long) definitelyAbsentChecks.count());
+        statistics.put("maybePresentChecks", (long) maybePresent);
+        statistics.put("falsePositives", (long) falsePositives.count());
+        statistics.put("observedFalsePositiveRate", maybePresent == 0 ? 0.0 : falsePositives.count() / maybePresent);
+        return statistics;
+    }
+
+    /**
+     * Fixed-size, thread-safe bit array with the Bloom filter hashing scheme.
+     */
+    private static final class BitArray {
+
+        private final long expectedInsertions;
+        private final long numBits;
+        private final int numHashes;
+        private final AtomicLongArray words;
+        private final AtomicLong setBits = new AtomicLong();
+        private final LongAdder insertions = new LongAdder();
+
+        private BitArray(long expectedInsertions, long numBits, int numHashes) {
+            this.expectedInsertions = expectedInsertions;
+            this.numBits = numBits;
+            this.numHashes = numHashes;
+            this.words = new AtomicLongArray(Math.toIntExact((numBits + 63) / 64));
+        }
+
+        // Optimal size m = -n ln p / (ln 2)^2 and hash count k = m/n ln 2
+        static BitArray sizedFor(long expectedInsertions, double falsePositiveProbability) {
+            long n = Math.max(1, expectedInsertions);
+            long numBits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2))));
+            int numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+            return new BitArray(n, numBits, numHashes);
+        }
+
+        void put(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < numHashes; i++) {
+                long bitIndex = Math.floorMod(hash1 + i * hash2, numBits);
+                long mask = 1L << bitIndex;
+                long previous = words.getAndAccumulate((int) (bitIndex >>> 6), mask, (word, bit) -> word | bit);
+                if ((previous & mask) == 0) {
+                    setBits.incrementAndGet();
+                }
+            }
+            insertions.increment();
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < numHashes; i++) {
+                long bitIndex = Math.floorMod(hash1 + i * hash2, numBits);
+                if ((words.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double fillRatio() {
+            return (double) setBits.get() / numBits;
+        }
+
+        // 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
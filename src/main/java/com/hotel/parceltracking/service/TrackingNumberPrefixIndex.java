@@ -0,0 +1,121 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Sorted in-memory index of the tracking numbers of uncollected parcels, for completing a
+ * partly typed tracking number without a {@code LIKE 'prefix%'} query.
+ * Tracking numbers are ordered case-insensitively, so all numbers starting with a prefix sit
+ * next to each other and a lookup is one O(log n) seek followed by a walk over at most
+ * {@code limit} entries.
+ * Built from the database at startup and kept in sync from the committed lifecycle events.
+ */
+@Component
+public class TrackingNumberPrefixIndex {
+
+    // Case-insensitive first; case only separates numbers that differ in nothing else
+    private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final ParcelRepository parcelRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final NavigableSet<String> trackingNumbers = new ConcurrentSkipListSet<>(ORDER);
+
+    @Autowired
+    public TrackingNumberPrefixIndex(ParcelRepository parcelRepository, PlatformTransactionManager transactionManager) {
+        this.parcelRepository = parcelRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuilds the index from the uncollected parcels in the database.
+     */
+    @PostConstruct
+    public void rebuild() {
+        trackingNumbers.clear();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> uncollected = parcelRepository.streamUncollectedTrackingNumbers()) {
+                uncollected.forEach(trackingNumbers::add);
+            }
+        });
+    }
+
+    /**
+     * Indexes an accepted parcel or drops a collected one once its transaction has committed.
+     * Runs without a transaction when the event was published outside one.
+     * @param event the lifecycle event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLifecycleEvent(LifecycleEventDto event) {
+        if (event.getType() == LifecycleEventType.PARCEL_ACCEPTED) {
+            add(event.getParcel().getTrackingNumber());
+        } else if (event.getType() == LifecycleEventType.PARCEL_COLLECTED) {
+            remove(event.getParcel().getTrackingNumber());
+        }
+    }
+
+    /**
+     * Records an accepted parcel.
+     * @param trackingNumber the tracking number of the accepted parcel
+     */
+    void add(String trackingNumber) {
+        trackingNumbers.add(trackingNumber);
+    }
+
+    /**
+     * Records a collected parcel.
+     * @param trackingNumber the tracking number of the collected parcel
+     */
+    void remove(String trackingNumber) {
+        trackingNumbers.remove(trackingNumber);
+    }
+
+    /**
+     * Finds the tracking numbers of uncollected parcels starting with a prefix, ignoring case.
+     * @param prefix the first characters of the tracking number
+     * @param limit maximum number of tracking numbers to return
+     * @return matching tracking numbers in case-insensitive order
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String trimmedPrefix = prefix == null ? "" : prefix.trim();
+        if (trimmedPrefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        // Upper case sorts before lower case, so the upper-cased prefix is the lowest possible match
+        for (String trackingNumber : trackingNumbers.tailSet(trimmedPrefix.toUpperCase(Locale.ROOT), true)) {
+            if (!trackingNumber.regionMatches(true, 0, trimmedPrefix, 0, trimmedPrefix.length())) {
+                break;
+            }
+            matches.add(trackingNumber);
+            if (matches.size() == limit) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the number of indexed tracking numbers.
+     * @return indexed tracking number count
+     */
+    public int size() {
+        return trackingNumbers.size();
+    }
+}
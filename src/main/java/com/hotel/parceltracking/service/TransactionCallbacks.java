@@ -0,0 +1,53 @@
+package com.hotel.parceltracking.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction hooks for the in-memory state kept alongside the database: indexes, counters
+ * and deadlines that are built from the database at startup and then updated only by this
+ * application's own committed writes.
+ * That state therefore assumes this application instance is the only writer of the guests
+ * and parcels tables; rows changed by anyone else show up only after a restart.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs the action after the surrounding transaction commits, so a rollback never leaves
+     * in-memory state out of sync with the database. Runs immediately when there is no transaction.
+     * @param action the update to apply
+     */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the action once the surrounding transaction has committed or rolled back.
+     * Runs immediately when there is no transaction.
+     * @param action the update to apply
+     */
+    static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hotel.parceltracking;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.ParcelService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the prod profile keeps its data in a file database across restarts.
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class ProdProfilePersistenceTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void prodProfile_KeepsParcelsAndGuestsAcrossRestarts(CapturedOutput output) {
+        // Given
+        Long guestId;
+        try (ConfigurableApplicationContext context = start()) {
+            guestId = context.getBean(GuestService.class).checkInGuest(new GuestDto("Durable Guest", "P1")).getId();
+            context.getBean(ParcelService.class).acceptParcel(new ParcelDto("DURABLE-1", "Courier", "Box", guestId));
+        }
+
+        // When
+        try (ConfigurableApplicationContext context = start()) {
+            // Then - the data, and the in-memory state rebuilt from it, survived the restart
+            assertEquals(guestId, context.getBean(ParcelService.class).getParcelByTrackingNumber("DURABLE-1").getGuestId());
+            assertTrue(context.getBean(GuestService.class).isGuestCheckedIn("P1"));
+            HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+            assertTrue(dataSource.getJdbcUrl().startsWith("jdbc:h2:file:" + dataDir.toAbsolutePath()));
+            assertEquals(dataSource.getMaximumPoolSize(), dataSource.getMinimumIdle());
+        }
+        assertTrue(Files.exists(dataDir.resolve("parceldb.mv.db")));
+        assertTrue(Files.isDirectory(dataDir.resolve("journal")));
+        // Hibernate statistics feed the metrics without logging every session
+        assertFalse(output.getOut().contains("Session Metrics"));
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ParcelTrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                // A command-line argument, as a default property would lose to application-prod.yml
+                .run("--parcel-tracking.data-dir=" + dataDir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,92 @@
+package com.hotel.parceltracking.controller;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.ParcelService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for ETag-based conditional GETs on the list endpoints.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional-list-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class ConditionalListRequestTest {
+
+    private static final String[] LIST_ENDPOINTS = {
+            "/api/parcels/uncollected", "/api/guests/checked-in", "/api/parcels/checked-in-guests"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void unchangedData_AnsweredWithNotModifiedWithoutQuerying() throws Exception {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Etag Guest", "E101"));
+        parcelService.acceptParcel(new ParcelDto("ETAG-1", "Courier", "Box", guest.getId()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (String endpoint : LIST_ENDPOINTS) {
+            String etag = mockMvc.perform(get(endpoint))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(etag);
+            assertFalse(etag.startsWith("W/"));
+            statistics.clear();
+
+            // When & Then
+            mockMvc.perform(get(endpoint).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""));
+            assertEquals(0, statistics.getPrepareStatementCount());
+        }
+    }
+
+    @Test
+    void write_ChangesEtag() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/api/guests/checked-in"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Etag Guest", "E102"));
+
+        // Then
+        String afterCheckIn = mockMvc.perform(get("/api/guests/checked-in").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, afterCheckIn);
+
+        // When - parcel writes change the guest list too, as it embeds the guests' parcels
+        parcelService.acceptParcel(new ParcelDto("ETAG-2", "Courier", "Box", guest.getId()));
+
+        // Then
+        mockMvc.perform(get("/api/guests/checked-in").header(HttpHeaders.IF_NONE_MATCH, afterCheckIn))
+                .andExpect(status().isOk());
+    }
+}
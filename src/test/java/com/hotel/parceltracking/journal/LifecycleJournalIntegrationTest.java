@@ -0,0 +1,102 @@
+package com.hotel.parceltracking.journal;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.exception.BusinessLogicException;
+import com.hotel.parceltracking.service.GuestService;
+import com.hotel.parceltracking.service.ParcelService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for journaling lifecycle events from the services.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:journal-test;DB_CLOSE_DELAY=-1",
+        "parcel-tracking.journal.enabled=true"
+})
+class LifecycleJournalIntegrationTest {
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"), "journal-test-" + UUID.randomUUID());
+        registry.add("parcel-tracking.journal.dir", directory::toString);
+    }
+
+    @Autowired
+    private LifecycleJournal journal;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Test
+    void committedLifecycle_IsJournaledWithoutTheDatabase() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Journaled Guest", "J1"));
+        ParcelDto parcel = parcelService.acceptParcel(new ParcelDto("JOURNAL-1", "Courier", "Box", guest.getId()));
+        parcelService.collectParcelByTrackingNumber("JOURNAL-1");
+        guestService.checkOutGuest(guest.getId());
+
+        // When
+        List<JournalRecord> history = journal.reader().findByTrackingNumber("JOURNAL-1");
+
+        // Then
+        assertEquals(List.of(LifecycleEventType.PARCEL_ACCEPTED, LifecycleEventType.PARCEL_COLLECTED),
+                history.stream().map(JournalRecord::getType).toList());
+        assertEquals(parcel.getId(), history.get(0).getParcelId());
+        assertEquals("J1", history.get(1).getRoomNumber());
+        assertTrue(history.get(0).getSequence() < history.get(1).getSequence());
+    }
+
+    @Test
+    void rolledBackWrite_IsNotJournaled() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Careful Guest", "J2"));
+        parcelService.acceptParcel(new ParcelDto("JOURNAL-2", "Courier", "Box", guest.getId()));
+        parcelService.collectParcelByTrackingNumber("JOURNAL-2");
+
+        // When - collecting again fails
+        assertThrows(BusinessLogicException.class, () -> parcelService.collectParcelByTrackingNumber("JOURNAL-2"));
+
+        // Then
+        assertEquals(2, journal.reader().findByTrackingNumber("JOURNAL-2").size());
+    }
+
+    @Test
+    void replay_RebuildsRoomOccupancy() {
+        // Given
+        GuestDto leaving = guestService.checkInGuest(new GuestDto("Leaving Guest", "J3"));
+        GuestDto staying = guestService.checkInGuest(new GuestDto("Staying Guest", "J4"));
+        guestService.checkOutGuest(leaving.getId());
+
+        // When - replay check-ins and check-outs into a room-to-guest map
+        Map<String, Long> occupancy = new HashMap<>();
+        journal.reader().replay(record -> {
+            if (record.getType() == LifecycleEventType.GUEST_CHECKED_IN) {
+                occupancy.put(record.getRoomNumber(), record.getGuestId());
+            } else if (record.getType() == LifecycleEventType.GUEST_CHECKED_OUT) {
+                occupancy.remove(record.getRoomNumber(), record.getGuestId());
+            }
+        });
+
+        // Then
+        assertFalse(occupancy.containsKey("J3"));
+        assertEquals(staying.getId(), occupancy.get("J4"));
+        assertEquals(guestService.isGuestCheckedIn("J4"), occupancy.containsKey("J4"));
+    }
+}
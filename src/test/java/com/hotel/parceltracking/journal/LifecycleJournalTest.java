@@ -0,0 +1,230 @@
+package com.hotel.parceltracking.journal;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lifecycle journal and its reader.
+ */
+class LifecycleJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<LifecycleJournal> openJournals = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() {
+        openJournals.forEach(LifecycleJournal::close);
+    }
+
+    @Test
+    void append_RecordsReadBackInOrder() {
+        // Given
+        LifecycleJournal journal = open(DataSize.ofMegabytes(1), false);
+
+        // When
+        journal.append(guestEvent(LifecycleEventType.GUEST_CHECKED_IN, 7L, "101"));
+        journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, 1L, "TRK-1", 7L));
+        journal.append(parcelEvent(LifecycleEventType.PARCEL_COLLECTED, 1L, "TRK-1", 7L));
+
+        // Then
+        List<JournalRecord> records = new ArrayList<>();
+        journal.reader().replay(records::add);
+        assertEquals(List.of(1L, 2L, 3L), records.stream().map(JournalRecord::getSequence).toList());
+        JournalRecord checkIn = records.get(0);
+        assertEquals(LifecycleEventType.GUEST_CHECKED_IN, checkIn.getType());
+        assertNull(checkIn.getParcelId());
+        assertNull(checkIn.getTrackingNumber());
+        assertEquals("Guest 7", checkIn.getGuestName());
+        assertEquals("101", checkIn.getRoomNumber());
+
+        List<JournalRecord> history = journal.reader().findByTrackingNumber("TRK-1");
+        assertEquals(List.of(LifecycleEventType.PARCEL_ACCEPTED, LifecycleEventType.PARCEL_COLLECTED),
+                history.stream().map(JournalRecord::getType).toList());
+        assertEquals(1L, history.get(0).getParcelId());
+        assertEquals(7L, history.get(0).getGuestId());
+        assertEquals("Room 7", history.get(0).getRoomNumber());
+    }
+
+    @Test
+    void append_RollsOverToNewSegments() {
+        // Given - segments that hold only a few records
+        LifecycleJournal journal = open(DataSize.ofBytes(512), false);
+
+        // When
+        for (long i = 1; i <= 50; i++) {
+            journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, i, "ROLL-" + i, 1L));
+        }
+
+        // Then
+        JournalReader reader = journal.reader();
+        assertTrue(reader.segments().size() > 5);
+        List<Long> sequences = new ArrayList<>();
+        reader.replay(record -> sequences.add(record.getSequence()));
+        assertEquals(50, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i + 1, sequences.get(i));
+        }
+        List<Long> tail = new ArrayList<>();
+        reader.replayFrom(45, record -> tail.add(record.getSequence()));
+        assertEquals(List.of(45L, 46L, 47L, 48L, 49L, 50L), tail);
+    }
+
+    @Test
+    void findByTrackingNumber_IndexesSealedSegments() {
+        // Given - segments that hold only a few records, a parcel's history spread over several
+        LifecycleJournal journal = open(DataSize.ofBytes(512), false);
+        journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, 1L, "SPREAD-1", 1L));
+        for (long i = 2; i <= 30; i++) {
+            journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, i, "OTHER-" + i, 1L));
+        }
+        journal.append(parcelEvent(LifecycleEventType.PARCEL_COLLECTED, 1L, "SPREAD-1", 1L));
+        JournalReader reader = journal.reader();
+
+        // When
+        List<JournalRecord> history = reader.findByTrackingNumber("SPREAD-1");
+
+        // Then - every full segment is indexed on the first lookup
+        assertEquals(List.of(1L, 31L), history.stream().map(JournalRecord::getSequence).toList());
+        assertEquals(reader.segments().size() - 1, reader.indexedSegments());
+
+        // When - more records fill further segments
+        for (long i = 32; i <= 60; i++) {
+            journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, i, "OTHER-" + i, 1L));
+        }
+        journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, 61L, "SPREAD-1", 1L));
+
+        // Then - the lookup still sees every segment
+        assertEquals(List.of(1L, 31L, 61L), reader.findByTrackingNumber("SPREAD-1").stream().map(JournalRecord::getSequence).toList());
+        assertEquals(List.of(45L), reader.findByTrackingNumber("OTHER-45").stream().map(JournalRecord::getSequence).toList());
+        assertEquals(reader.segments().size() - 1, reader.indexedSegments());
+    }
+
+    @Test
+    void open_ContinuesAfterTornRecord() throws IOException {
+        // Given - a journal whose last append was torn by a crash
+        LifecycleJournal journal = open(DataSize.ofMegabytes(1), false);
+        journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, 1L, "TORN-1", 1L));
+        journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, 2L, "TORN-2", 1L));
+        closeAll();
+        tearRecordAfterLast(journal.reader().segments().get(0));
+
+        // When
+        LifecycleJournal reopened = open(DataSize.ofMegabytes(1), false);
+        long sequence = reopened.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, 3L, "TORN-3", 1L));
+
+        // Then
+        assertEquals(3L, sequence);
+        List<String> trackingNumbers = new ArrayList<>();
+        reopened.reader().replay(record -> trackingNumbers.add(record.getTrackingNumber()));
+        assertEquals(List.of("TORN-1", "TORN-2", "TORN-3"), trackingNumbers);
+    }
+
+    @Test
+    void open_RejectsDirectoryInUse() {
+        // Given
+        open(DataSize.ofMegabytes(1), false);
+        LifecycleJournal second = new LifecycleJournal(directory.toString(), DataSize.ofMegabytes(1),
+                Duration.ofMillis(10), false, meterRegistry);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, second::open);
+    }
+
+    @Test
+    void concurrentAppends_AwaitingSync_ShareSyncs() throws InterruptedException {
+        // Given
+        LifecycleJournal journal = open(DataSize.ofKilobytes(64), true);
+        int threads = 8;
+        int appendsPerThread = 250;
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < appendsPerThread; i++) {
+                    journal.append(parcelEvent(LifecycleEventType.PARCEL_ACCEPTED, (long) i, "SYNC-" + thread + "-" + i, 1L));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        // Then - every append returned only once synced, with no gaps in the sequence
+        int total = threads * appendsPerThread;
+        assertEquals((long) total, journal.statistics().get("syncedSequence"));
+        List<Long> sequences = new ArrayList<>();
+        journal.reader().replay(record -> sequences.add(record.getSequence()));
+        assertEquals(total, sequences.size());
+        assertEquals(total, sequences.get(total - 1));
+        double syncs = meterRegistry.get("parcel.tracking.journal.syncs").counter().count();
+        assertTrue(syncs <= total);
+        System.out.printf("%d appends on %d threads needed %.0f syncs%n", total, threads, syncs);
+    }
+
+    private LifecycleJournal open(DataSize segmentSize, boolean awaitSync) {
+        LifecycleJournal journal = new LifecycleJournal(directory.toString(), segmentSize,
+                Duration.ofMillis(10), awaitSync, meterRegistry);
+        journal.open();
+        openJournals.add(journal);
+        return journal;
+    }
+
+    private void closeAll() {
+        openJournals.forEach(LifecycleJournal::close);
+        openJournals.clear();
+    }
+
+    /**
+     * Writes a record length without a matching payload after the last record, as a crash mid-append would.
+     */
+    private static void tearRecordAfterLast(Path segmentFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            JournalCodec.readSegmentHeader(segment, segmentFile);
+            while (JournalCodec.read(segment) != null) {
+                // Skip to the end of the written records
+            }
+            segment.putInt(segment.position(), 40);
+            segment.putInt(segment.position() + 4, 12345);
+            segment.put(segment.position() + 8, (byte) 1);
+            segment.force();
+        }
+    }
+
+    private static LifecycleEventDto parcelEvent(LifecycleEventType type, Long parcelId, String trackingNumber, Long guestId) {
+        ParcelDto parcel = new ParcelDto(parcelId, trackingNumber, "Courier", "Box", LocalDateTime.now(), null,
+                type == LifecycleEventType.PARCEL_COLLECTED, guestId, "Guest " + guestId, "Room " + guestId);
+        return LifecycleEventDto.ofParcel(type, parcel);
+    }
+
+    private static LifecycleEventDto guestEvent(LifecycleEventType type, Long guestId, String roomNumber) {
+        return LifecycleEventDto.ofGuest(type, new GuestDto(guestId, "Guest " + guestId, roomNumber, LocalDateTime.now(), null));
+    }
+}
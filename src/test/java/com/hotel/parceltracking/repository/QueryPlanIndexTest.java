@@ -0,0 +1,92 @@
+package com.hotel.parceltracking.repository;
+
+import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.model.Parcel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the H2 query plans of the hot queries so that a dropped or mismatched
+ * index (which silently falls back to a table scan) fails the build.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query-plan-test;DB_CLOSE_DELAY=-1")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIndexTest {
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private ParcelRepository parcelRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seedData() {
+        List<Parcel> parcels = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Guest guest = guestRepository.save(new Guest("Guest " + i, "P" + i, LocalDateTime.now()));
+            if (i % 2 == 0) {
+                guest.checkOut();
+                guestRepository.save(guest);
+            }
+            parcels.add(new Parcel("QP-" + i, "Courier", "Box", guest));
+        }
+        parcelRepository.saveAll(parcels);
+    }
+
+    @Test
+    void findUncollectedParcelsByGuestId_UsesGuestCollectedIndex() {
+        assertUsesIndex("SELECT p.* FROM parcels p WHERE p.guest_id = 1 AND p.is_collected = FALSE",
+                "idx_parcels_guest_collected");
+    }
+
+    @Test
+    void findUncollectedParcelsByGuestRoomNumber_NoTableScan() {
+        assertNoTableScan("SELECT p.* FROM parcels p JOIN guests g ON g.id = p.guest_id "
+                + "WHERE g.room_number = 'P1' AND p.is_collected = FALSE");
+    }
+
+    @Test
+    void findUncollectedParcelsAfter_UsesCollectedIdIndex() {
+        assertUsesIndex("SELECT p.* FROM parcels p WHERE p.is_collected = FALSE AND p.id > 0 ORDER BY p.id",
+                "idx_parcels_collected_id");
+    }
+
+    @Test
+    void isGuestCheckedInByRoomNumber_UsesRoomCheckOutIndex() {
+        assertUsesIndex("SELECT COUNT(*) FROM guests g WHERE g.room_number = 'P1' AND g.check_out_time IS NULL",
+                "idx_guests_room_check_out");
+    }
+
+    @Test
+    void findAllCheckedInGuests_NoTableScan() {
+        assertNoTableScan("SELECT g.* FROM guests g WHERE g.check_out_time IS NULL");
+    }
+
+    private void assertUsesIndex(String sql, String indexName) {
+        String plan = explain(sql);
+        assertTrue(plan.contains(indexName), () -> "Expected index " + indexName + " in plan:\n" + plan);
+        assertFalse(plan.contains("tablescan"), () -> "Unexpected table scan in plan:\n" + plan);
+    }
+
+    private void assertNoTableScan(String sql) {
+        String plan = explain(sql);
+        assertFalse(plan.contains("tablescan"), () -> "Unexpected table scan in plan:\n" + plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toLowerCase();
+    }
+}
@@ -0,0 +1,247 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.ArchiveResultDto;
+import com.hotel.parceltracking.dto.CursorPageDto;
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.exception.ResourceNotFoundException;
+import com.hotel.parceltracking.repository.GuestHistoryRepository;
+import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.repository.ParcelHistoryRepository;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for archiving collected parcels and departed guests to the history tables,
+ * and for reading them back with the history option. A small chunk size makes every run span
+ * several chunk transactions.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive-test;DB_CLOSE_DELAY=-1",
+        "parcel-tracking.archive.chunk-size=2"
+})
+class ArchiveServiceTest {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ParcelRepository parcelRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private ParcelHistoryRepository parcelHistoryRepository;
+
+    @Autowired
+    private GuestHistoryRepository guestHistoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void archiveLeftovers() {
+        // Each test starts with nothing left to archive
+        archiveService.archive(future());
+    }
+
+    @Test
+    void archive_MovesCollectedParcelsAndDepartedGuestsInChunks() {
+        // Given - five collected parcels for a departed guest
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Departed Guest", "A1"));
+        List<Long> parcelIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Long parcelId = parcelService.acceptParcel(new ParcelDto("AR-CHUNK-" + i, "Courier", "Box", guest.getId())).getId();
+            parcelService.collectParcel(parcelId);
+            parcelIds.add(parcelId);
+        }
+        guestService.checkOutGuest(guest.getId());
+        Counter archivedParcels = meterRegistry.get("parcel.tracking.archived").tag("type", "parcel").counter();
+        double archivedBefore = archivedParcels.count();
+
+        // When
+        ArchiveResultDto result = archiveService.archive(future());
+
+        // Then
+        assertEquals(5, result.getArchivedParcels());
+        assertEquals(1, result.getArchivedGuests());
+        assertEquals(5, archivedParcels.count() - archivedBefore);
+        for (Long parcelId : parcelIds) {
+            assertFalse(parcelRepository.existsById(parcelId));
+            assertTrue(parcelHistoryRepository.existsById(parcelId));
+        }
+        assertFalse(guestRepository.existsById(guest.getId()));
+        assertTrue(guestHistoryRepository.existsById(guest.getId()));
+    }
+
+    @Test
+    void archive_KeepsGuestWithUncollectedParcelsActive() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Forgetful Guest", "A2"));
+        Long collectedId = parcelService.acceptParcel(new ParcelDto("AR-KEEP-1", "Courier", "Box", guest.getId())).getId();
+        Long uncollectedId = parcelService.acceptParcel(new ParcelDto("AR-KEEP-2", "Courier", "Box", guest.getId())).getId();
+        parcelService.collectParcel(collectedId);
+        guestService.checkOutGuest(guest.getId());
+
+        // When
+        ArchiveResultDto result = archiveService.archive(future());
+
+        // Then
+        assertEquals(1, result.getArchivedParcels());
+        assertEquals(0, result.getArchivedGuests());
+        assertTrue(parcelRepository.existsById(uncollectedId));
+        assertTrue(guestRepository.existsById(guest.getId()));
+    }
+
+    @Test
+    void archive_LeavesRecordsNewerThanCutoff() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Recent Guest", "A3"));
+        Long parcelId = parcelService.acceptParcel(new ParcelDto("AR-RECENT", "Courier", "Box", guest.getId())).getId();
+        parcelService.collectParcel(parcelId);
+        guestService.checkOutGuest(guest.getId());
+
+        // When
+        ArchiveResultDto result = archiveService.archive(LocalDateTime.now().minusDays(1));
+
+        // Then
+        assertEquals(0, result.getArchivedParcels());
+        assertEquals(0, result.getArchivedGuests());
+        assertTrue(parcelRepository.existsById(parcelId));
+        assertTrue(guestRepository.existsById(guest.getId()));
+    }
+
+    @Test
+    void historyReads_FindArchivedGuestsAndParcels() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Archived Guest", "A4"));
+        Long parcelId = parcelService.acceptParcel(new ParcelDto("AR-READ", "Courier", "Box", guest.getId())).getId();
+        parcelService.collectParcel(parcelId);
+        guestService.checkOutGuest(guest.getId());
+        archiveService.archive(future());
+
+        // When & Then - active reads no longer see the records
+        assertThrows(ResourceNotFoundException.class, () -> guestService.getGuestById(guest.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> parcelService.getParcelByTrackingNumber("AR-READ"));
+
+        // When & Then - history reads do
+        GuestDto archivedGuest = guestService.getGuestByIdIncludingHistory(guest.getId());
+        assertEquals("Archived Guest", archivedGuest.getName());
+        assertFalse(archivedGuest.isCheckedIn());
+        assertEquals(1, archivedGuest.getParcels().size());
+        ParcelDto archivedParcel = parcelService.getParcelByTrackingNumberIncludingHistory("AR-READ");
+        assertEquals(parcelId, archivedParcel.getId());
+        assertTrue(archivedParcel.isCollected());
+        assertEquals("A4", archivedParcel.getGuestRoomNumber());
+    }
+
+    @Test
+    void trackingNumber_CanBeReusedAfterArchiving() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Returning Guest", "A5"));
+        Long archivedId = parcelService.acceptParcel(new ParcelDto("AR-REUSE", "Courier", "Old box", guest.getId())).getId();
+        parcelService.collectParcel(archivedId);
+        archiveService.archive(future());
+
+        // When
+        ParcelDto reused = parcelService.acceptParcel(new ParcelDto("AR-REUSE", "Courier", "New box", guest.getId()));
+
+        // Then - the active parcel wins over the archived one
+        assertEquals(reused.getId(), parcelService.getParcelByTrackingNumberIncludingHistory("AR-REUSE").getId());
+        assertNotEquals(archivedId, reused.getId());
+    }
+
+    @Test
+    void archive_EvictsArchivedParcelsFromLookupCache() {
+        // Given - a collected parcel whose lookup is cached
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Cached Guest", "A8"));
+        Long parcelId = parcelService.acceptParcel(new ParcelDto("AR-CACHED", "Courier", "Box", guest.getId())).getId();
+        parcelService.collectParcel(parcelId);
+        parcelService.getParcelByTrackingNumber("AR-CACHED");
+
+        // When
+        archiveService.archive(future());
+
+        // Then
+        assertThrows(ResourceNotFoundException.class, () -> parcelService.getParcelByTrackingNumber("AR-CACHED"));
+    }
+
+    @Test
+    void getParcelsIncludingHistory_MergesActiveAndArchivedPagesById() {
+        // Given - alternating archived and active parcels
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Paging Guest", "A6"));
+        List<Long> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Long parcelId = parcelService.acceptParcel(new ParcelDto("AR-PAGE-" + i, "Courier", "Box", guest.getId())).getId();
+            if (i % 2 == 0) {
+                parcelService.collectParcel(parcelId);
+            }
+            expectedIds.add(parcelId);
+        }
+        archiveService.archive(future());
+
+        // When - page through everything from the first parcel on
+        List<Long> ids = new ArrayList<>();
+        Long after = expectedIds.get(0) - 1;
+        CursorPageDto<ParcelDto> page;
+        do {
+            page = parcelService.getParcelsIncludingHistory(after, 2);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(parcel -> ids.add(parcel.getId()));
+            after = page.getNextCursor();
+        } while (page.isHasNext());
+
+        // Then
+        assertEquals(expectedIds, ids);
+        assertEquals(3, parcelService.getParcels(expectedIds.get(0) - 1, 10).getItems().size());
+    }
+
+    @Test
+    void exportParcels_WithHistoryMergesArchivedParcelsInIdOrder() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Export Guest", "A7"));
+        Long archivedId = parcelService.acceptParcel(new ParcelDto("AR-EXPORT-1", "Courier", "Box", guest.getId())).getId();
+        parcelService.collectParcel(archivedId);
+        archiveService.archive(future());
+        parcelService.acceptParcel(new ParcelDto("AR-EXPORT-2", "Courier", "Box", guest.getId()));
+        ByteArrayOutputStream withHistory = new ByteArrayOutputStream();
+        ByteArrayOutputStream activeOnly = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportParcels(null, null, null, true, false, withHistory);
+        exportService.exportParcels(null, null, null, false, false, activeOnly);
+
+        // Then
+        String exported = withHistory.toString(StandardCharsets.UTF_8);
+        assertTrue(exported.indexOf("AR-EXPORT-1") >= 0);
+        assertTrue(exported.indexOf("AR-EXPORT-1") < exported.indexOf("AR-EXPORT-2"));
+        assertFalse(activeOnly.toString(StandardCharsets.UTF_8).contains("AR-EXPORT-1"));
+    }
+
+    private static LocalDateTime future() {
+        return LocalDateTime.now().plusMinutes(1);
+    }
+}
@@ -0,0 +1,163 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.exception.BusinessLogicException;
+import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.repository.GuestRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-threaded stress tests for check-in: exactly one guest wins each room under
+ * contention, and check-ins for different rooms proceed in parallel.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:check-in-concurrency-test;DB_CLOSE_DELAY=-1")
+class CheckInConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCheckInsForSameRoom_ExactlyOneSucceedsPerRoom() throws InterruptedException {
+        // Given - 8 desks race to check a guest into each of 50 rooms
+        int rooms = 50;
+        int attemptsPerRoom = 8;
+        List<String> attempts = new ArrayList<>();
+        for (int room = 0; room < rooms; room++) {
+            for (int attempt = 0; attempt < attemptsPerRoom; attempt++) {
+                attempts.add("R" + room);
+            }
+        }
+        Collections.shuffle(attempts);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        // When
+        runConcurrently(attempts, roomNumber -> {
+            try {
+                guestService.checkInGuest(new GuestDto("Racing Guest", roomNumber));
+                succeeded.incrementAndGet();
+            } catch (BusinessLogicException e) {
+                if (!e.getMessage().equals("Room " + roomNumber + " is already occupied")) {
+                    unexpected.add(e);
+                }
+                rejected.incrementAndGet();
+            } catch (Throwable e) {
+                unexpected.add(e);
+            }
+        });
+
+        // Then
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertEquals(rooms, succeeded.get());
+        assertEquals(rooms * (attemptsPerRoom - 1), rejected.get());
+        assertEquals(List.of(), jdbcTemplate.queryForList(
+                "SELECT room_number FROM guests WHERE room_number LIKE 'R%' AND check_out_time IS NULL "
+                        + "GROUP BY room_number HAVING COUNT(*) > 1", String.class));
+        for (int room = 0; room < rooms; room++) {
+            assertTrue(guestService.isGuestCheckedIn("R" + room));
+        }
+    }
+
+    @Test
+    void concurrentCheckInsForDistinctRooms_AllSucceedInParallel() throws InterruptedException {
+        // Given
+        int rooms = 2000;
+        List<String> attempts = new ArrayList<>();
+        for (int room = 0; room < rooms; room++) {
+            attempts.add("T" + room);
+        }
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        // When
+        long start = System.nanoTime();
+        runConcurrently(attempts, roomNumber -> {
+            try {
+                guestService.checkInGuest(new GuestDto("Guest", roomNumber));
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Then
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        assertEquals(rooms, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM guests WHERE room_number LIKE 'T%' AND check_out_time IS NULL", Integer.class));
+        System.out.printf("Checked in %d guests on %d threads in %.2f s (%.0f check-ins/s)%n",
+                rooms, THREADS, seconds, rooms / seconds);
+    }
+
+    @Test
+    void activeRoomConstraint_RejectsSecondCheckedInGuestButNotCheckedOutOnes() {
+        // Given - a previous, checked-out stay in the room
+        Guest previous = new Guest("Previous Guest", "U1", LocalDateTime.now().minusDays(3));
+        previous.checkOut();
+        guestRepository.saveAndFlush(previous);
+        guestRepository.saveAndFlush(new Guest("Current Guest", "U1", LocalDateTime.now()));
+
+        // When & Then - bypassing the service, the database still allows one checked-in guest per room
+        assertThrows(DataIntegrityViolationException.class,
+                () -> guestRepository.saveAndFlush(new Guest("Intruder", "U1", LocalDateTime.now())));
+    }
+
+    @Test
+    void checkInAfterCheckOut_ReusesRoom() {
+        // Given
+        GuestDto first = guestService.checkInGuest(new GuestDto("First Guest", "V1"));
+        guestService.checkOutGuest(first.getId());
+
+        // When
+        GuestDto second = guestService.checkInGuest(new GuestDto("Second Guest", "V1"));
+
+        // Then
+        assertTrue(second.isCheckedIn());
+        assertNotEquals(first.getId(), second.getId());
+    }
+
+    private static void runConcurrently(List<String> roomNumbers, Consumer<String> checkIn)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (String roomNumber : roomNumbers) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                checkIn.accept(roomNumber);
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "Check-ins did not finish in time");
+    }
+}
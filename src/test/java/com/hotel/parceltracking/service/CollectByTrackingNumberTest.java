@@ -0,0 +1,141 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.exception.BusinessLogicException;
+import com.hotel.parceltracking.exception.ResourceNotFoundException;
+import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.model.Parcel;
+import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for collecting a parcel by tracking number with a single conditional update.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:collect-by-tracking-number-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CollectByTrackingNumberTest {
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelRepository parcelRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private GuestDto guest;
+
+    @BeforeAll
+    void seedGuest() {
+        guest = guestService.checkInGuest(new GuestDto("Pickup Guest", "C1"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void collectParcelByTrackingNumber_UpdatePlusOneSelect() {
+        // Given
+        parcelService.acceptParcel(new ParcelDto("CT-1", "Courier", "Box", guest.getId()));
+        statistics.clear();
+
+        // When
+        ParcelDto result = parcelService.collectParcelByTrackingNumber("CT-1");
+
+        // Then
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(result.isCollected());
+        assertNotNull(result.getCollectionTime());
+        assertNotNull(result.getArrivalTime());
+        assertEquals("Pickup Guest", result.getGuestName());
+        assertEquals("C1", result.getGuestRoomNumber());
+        assertTrue(parcelRepository.findByTrackingNumber("CT-1").orElseThrow().isCollected());
+    }
+
+    @Test
+    void collectParcelByTrackingNumber_AlreadyCollected() {
+        // Given
+        parcelService.acceptParcel(new ParcelDto("CT-2", "Courier", "Box", guest.getId()));
+        parcelService.collectParcelByTrackingNumber("CT-2");
+
+        // When & Then
+        BusinessLogicException exception = assertThrows(BusinessLogicException.class,
+                () -> parcelService.collectParcelByTrackingNumber("CT-2"));
+        assertEquals("Parcel is already collected", exception.getMessage());
+    }
+
+    @Test
+    void collectParcelByTrackingNumber_NotFound() {
+        // When & Then
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> parcelService.collectParcelByTrackingNumber("CT-UNKNOWN"));
+        assertEquals("Parcel not found with tracking number: CT-UNKNOWN", exception.getMessage());
+    }
+
+    @Test
+    void collectParcelByTrackingNumber_BumpsVersionSoStaleWritesFail() {
+        // Given - another desk read the parcel before it was collected by tracking number
+        Long parcelId = parcelService.acceptParcel(new ParcelDto("CT-3", "Courier", "Box", guest.getId())).getId();
+        Parcel staleParcel = parcelRepository.findById(parcelId).orElseThrow();
+
+        // When
+        parcelService.collectParcelByTrackingNumber("CT-3");
+
+        // Then
+        staleParcel.markAsCollected();
+        assertThrows(OptimisticLockingFailureException.class, () -> parcelRepository.saveAndFlush(staleParcel));
+    }
+
+    @Test
+    void collectParcelByTrackingNumber_KeepsCallersEntitiesManaged() {
+        // Given
+        parcelService.acceptParcel(new ParcelDto("CT-4", "Courier", "Box", guest.getId()));
+
+        // When - collecting inside a transaction that already loaded the guest
+        boolean stillManaged = new TransactionTemplate(transactionManager).execute(status -> {
+            Guest managedGuest = guestRepository.findById(guest.getId()).orElseThrow();
+            parcelService.collectParcelByTrackingNumber("CT-4");
+            return entityManager.contains(managedGuest);
+        });
+
+        // Then
+        assertTrue(stillManaged);
+    }
+}
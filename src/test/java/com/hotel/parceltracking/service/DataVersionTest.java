@@ -0,0 +1,75 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DataVersion.
+ */
+class DataVersionTest {
+
+    private final DataVersion dataVersion = new DataVersion();
+
+    @Test
+    void recordChange_OutsideTransaction_ChangesEtag() {
+        // Given
+        String etag = dataVersion.etag();
+
+        // When
+        dataVersion.recordChange();
+
+        // Then
+        assertNotNull(dataVersion.etag());
+        assertNotEquals(etag, dataVersion.etag());
+        assertEquals(1, dataVersion.current());
+    }
+
+    @Test
+    void recordChange_InTransaction_NoEtagUntilCompletion() {
+        // Given
+        String etag = dataVersion.etag();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            dataVersion.recordChange();
+
+            // Then - committed or not, the write is in flight
+            assertNull(dataVersion.etag());
+
+            // When
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            // Then
+            assertNotNull(dataVersion.etag());
+            assertNotEquals(etag, dataVersion.etag());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void onLifecycleEvent_IgnoresOverdueFlags() {
+        // Given
+        String etag = dataVersion.etag();
+        ParcelDto parcel = new ParcelDto("TRK123", "Amazon", "Package", 1L);
+
+        // When
+        dataVersion.onLifecycleEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_OVERDUE, parcel));
+
+        // Then
+        assertEquals(etag, dataVersion.etag());
+
+        // When
+        dataVersion.onLifecycleEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_ACCEPTED, parcel));
+
+        // Then
+        assertNotEquals(etag, dataVersion.etag());
+    }
+}
@@ -0,0 +1,116 @@
+package com.hotel.parceltracking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the NDJSON exports.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:export-test;DB_CLOSE_DELAY=-1")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    void seedData() {
+        GuestDto staying = guestService.checkInGuest(new GuestDto("Staying Guest", "E1"));
+        GuestDto leaving = guestService.checkInGuest(new GuestDto("Leaving Guest", "E2"));
+        parcelService.acceptParcel(new ParcelDto("EXPORT-1", "Courier", "Box", staying.getId()));
+        parcelService.acceptParcel(new ParcelDto("EXPORT-2", "Courier", "Box", staying.getId()));
+        ParcelDto collected = parcelService.acceptParcel(new ParcelDto("EXPORT-3", "Courier", "Box", leaving.getId()));
+        parcelService.collectParcel(collected.getId());
+        guestService.checkOutGuest(leaving.getId());
+    }
+
+    @Test
+    void exportParcels_WritesOneJsonObjectPerLine() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportParcels(null, null, null, false, false, out);
+
+        // Then
+        List<JsonNode> rows = parseNdjson(out.toString(StandardCharsets.UTF_8));
+        assertEquals(3, count);
+        assertEquals(3, rows.size());
+        assertEquals("EXPORT-1", rows.get(0).get("trackingNumber").asText());
+        assertEquals("Staying Guest", rows.get(0).get("guestName").asText());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+
+    @Test
+    void exportParcels_FiltersByStatusAndArrivalTime() throws IOException {
+        // Given
+        ByteArrayOutputStream uncollected = new ByteArrayOutputStream();
+        ByteArrayOutputStream future = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportParcels(null, null, false, false, false, uncollected);
+        long futureCount = exportService.exportParcels(LocalDateTime.now().plusDays(1), null, null, false, false, future);
+
+        // Then
+        List<JsonNode> rows = parseNdjson(uncollected.toString(StandardCharsets.UTF_8));
+        assertEquals(List.of("EXPORT-1", "EXPORT-2"), rows.stream().map(row -> row.get("trackingNumber").asText()).toList());
+        assertEquals(0, futureCount);
+        assertEquals(0, future.size());
+    }
+
+    @Test
+    void exportGuests_FiltersCheckedOutAndGzips() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportGuests(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1), false, false, true, out);
+
+        // Then
+        String ndjson;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<JsonNode> rows = parseNdjson(ndjson);
+        assertEquals(1, count);
+        assertEquals("E2", rows.get(0).get("roomNumber").asText());
+        assertFalse(rows.get(0).get("checkedIn").asBoolean());
+    }
+
+    private List<JsonNode> parseNdjson(String ndjson) throws IOException {
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isEmpty()) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        return rows;
+    }
+}
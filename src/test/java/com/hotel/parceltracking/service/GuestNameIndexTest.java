@@ -0,0 +1,160 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestSearchResultDto;
+import com.hotel.parceltracking.repository.GuestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GuestNameIndex.
+ */
+@ExtendWith(MockitoExtension.class)
+class GuestNameIndexTest {
+
+    @Mock
+    private GuestRepository guestRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private GuestNameIndex guestNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(guestRepository.streamGuestNames()).thenReturn(Stream.of(
+                guestName(1L, "John Smith", "101", null),
+                guestName(2L, "Jane Smithson", "102", null),
+                guestName(3L, "Johan Schmidt", "103", null),
+                guestName(4L, "Joanna Smith", "104", LocalDateTime.now()),
+                guestName(5L, "José Álvarez", "105", null)));
+        guestNameIndex.rebuild();
+    }
+
+    @Test
+    void search_SubstringMatchesRankFirst() {
+        // When
+        List<GuestSearchResultDto> results = guestNameIndex.search("smith", true, 10);
+
+        // Then - checked-out Joanna Smith is left out
+        assertEquals(List.of(1L, 2L), guestIds(results));
+        assertTrue(results.get(0).isSubstringMatch());
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+    }
+
+    @Test
+    void search_ToleratesMisspelling() {
+        // When
+        List<GuestSearchResultDto> results = guestNameIndex.search("jon smiht", true, 10);
+
+        // Then
+        assertFalse(results.isEmpty());
+        assertEquals(1L, results.get(0).getGuestId());
+        assertFalse(results.get(0).isSubstringMatch());
+        assertTrue(results.get(0).getScore() >= GuestNameIndex.MIN_SIMILARITY);
+    }
+
+    @Test
+    void search_IgnoresCaseAccentsAndPunctuation() {
+        // When
+        List<GuestSearchResultDto> results = guestNameIndex.search("jose-alvarez", true, 10);
+
+        // Then
+        assertEquals(List.of(5L), guestIds(results));
+        assertTrue(results.get(0).isSubstringMatch());
+        assertEquals("José Álvarez", results.get(0).getName());
+    }
+
+    @Test
+    void search_IncludesCheckedOutGuestsOnRequest() {
+        // When
+        List<GuestSearchResultDto> results = guestNameIndex.search("smith", false, 10);
+
+        // Then
+        assertTrue(guestIds(results).containsAll(List.of(1L, 2L, 4L)));
+        assertFalse(results.stream().filter(result -> result.getGuestId() == 4L).findFirst().orElseThrow().isCheckedIn());
+    }
+
+    @Test
+    void search_LimitsResults() {
+        // When & Then
+        assertEquals(1, guestNameIndex.search("smith", false, 1).size());
+        assertEquals(List.of(), guestNameIndex.search("  ", true, 10));
+        assertEquals(List.of(), guestNameIndex.search("zzz", true, 10));
+    }
+
+    @Test
+    void addAndCheckOut_OutsideTransaction_AppliedImmediately() {
+        // When
+        guestNameIndex.add(6L, "Maria Smith", "106");
+
+        // Then
+        assertTrue(guestIds(guestNameIndex.search("smith", true, 10)).contains(6L));
+
+        // When
+        guestNameIndex.checkOut(6L);
+
+        // Then
+        assertFalse(guestIds(guestNameIndex.search("smith", true, 10)).contains(6L));
+        assertTrue(guestIds(guestNameIndex.search("smith", false, 10)).contains(6L));
+    }
+
+    @Test
+    void removeAll_DropsGuestsAndCompacts() {
+        // Given
+        List<Long> archived = new ArrayList<>();
+        for (long id = 100; id < 200; id++) {
+            guestNameIndex.add(id, "Archived Guest " + id, "A" + id);
+            archived.add(id);
+        }
+
+        // When
+        guestNameIndex.removeAll(archived);
+
+        // Then
+        assertEquals(5, guestNameIndex.size());
+        assertEquals(List.of(), guestNameIndex.search("archived", false, 10));
+        assertEquals(List.of(1L, 2L, 4L), guestIds(guestNameIndex.search("smith", false, 10)).stream().sorted().toList());
+    }
+
+    private static List<Long> guestIds(List<GuestSearchResultDto> results) {
+        return results.stream().map(GuestSearchResultDto::getGuestId).toList();
+    }
+
+    private static GuestRepository.GuestName guestName(Long id, String name, String roomNumber, LocalDateTime checkOutTime) {
+        return new GuestRepository.GuestName() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getRoomNumber() {
+                return roomNumber;
+            }
+
+            @Override
+            public LocalDateTime getCheckOutTime() {
+                return checkOutTime;
+            }
+        };
+    }
+}
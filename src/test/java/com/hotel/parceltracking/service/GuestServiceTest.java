@@ -1,9 +1,16 @@
 package com.hotel.parceltracking.service;
 
+import com.hotel.parceltracking.dto.CursorPageDto;
+import com.hotel.parceltracking.dto.GuestCheckOutBatchResultDto;
+import com.hotel.parceltracking.dto.GuestCheckOutItemResultDto;
 import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
 import com.hotel.parceltracking.exception.BusinessLogicException;
 import com.hotel.parceltracking.exception.ResourceNotFoundException;
 import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.repository.GuestHistoryRepository;
 import com.hotel.parceltracking.repository.GuestRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,14 +18,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,9 +45,24 @@ class GuestServiceTest {
     @Mock
     private GuestRepository guestRepository;
 
+    @Mock
+    private GuestHistoryRepository guestHistoryRepository;
+
     @Mock
     private ParcelService parcelService;
 
+    @Mock
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Mock
+    private RoomLockStripes roomLocks;
+
+    @Mock
+    private GuestNameIndex guestNameIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private GuestService guestService;
 
@@ -50,8 +80,8 @@ class GuestServiceTest {
     @Test
     void checkInGuest_Success() {
         // Given
-        when(guestRepository.isGuestCheckedInByRoomNumber("101")).thenReturn(false);
-        when(guestRepository.save(any(Guest.class))).thenReturn(testGuest);
+        when(roomOccupancyIndex.isOccupied("101")).thenReturn(false);
+        when(guestRepository.saveAndFlush(any(Guest.class))).thenReturn(testGuest);
 
         // When
         GuestDto result = guestService.checkInGuest(testGuestDto);
@@ -61,14 +91,53 @@ class GuestServiceTest {
         assertEquals("John Doe", result.getName());
         assertEquals("101", result.getRoomNumber());
         assertTrue(result.isCheckedIn());
-        verify(guestRepository).isGuestCheckedInByRoomNumber("101");
-        verify(guestRepository).save(any(Guest.class));
+        verify(roomOccupancyIndex, times(2)).isOccupied("101");
+        verify(roomLocks).lockUntilCompletion("101");
+        verify(guestRepository, never()).isGuestCheckedInByRoomNumber(any());
+        verify(guestRepository).saveAndFlush(argThat((Guest guest) -> "101".equals(guest.getActiveRoomNumber())));
+        verify(roomOccupancyIndex).occupy("101", 1L);
+        verify(eventPublisher).publishEvent(argThat((LifecycleEventDto event) ->
+                event.getType() == LifecycleEventType.GUEST_CHECKED_IN && "101".equals(event.getGuest().getRoomNumber())));
     }
 
     @Test
     void checkInGuest_RoomAlreadyOccupied() {
         // Given
-        when(guestRepository.isGuestCheckedInByRoomNumber("101")).thenReturn(true);
+        when(roomOccupancyIndex.isOccupied("101")).thenReturn(true);
+
+        // When & Then
+        BusinessLogicException exception = assertThrows(
+                BusinessLogicException.class,
+                () -> guestService.checkInGuest(testGuestDto)
+        );
+        assertEquals("Room 101 is already occupied", exception.getMessage());
+        verify(roomOccupancyIndex).isOccupied("101");
+        verify(roomLocks, never()).lockUntilCompletion(any());
+        verify(guestRepository, never()).saveAndFlush(any(Guest.class));
+        verify(roomOccupancyIndex, never()).occupy(any(), any());
+    }
+
+    @Test
+    void checkInGuest_RoomOccupiedWhileWaitingForLock() {
+        // Given - a competing check-in for the room commits before the lock is granted
+        when(roomOccupancyIndex.isOccupied("101")).thenReturn(false, true);
+
+        // When & Then
+        BusinessLogicException exception = assertThrows(
+                BusinessLogicException.class,
+                () -> guestService.checkInGuest(testGuestDto)
+        );
+        assertEquals("Room 101 is already occupied", exception.getMessage());
+        verify(roomLocks).lockUntilCompletion("101");
+        verify(guestRepository, never()).saveAndFlush(any(Guest.class));
+    }
+
+    @Test
+    void checkInGuest_ActiveRoomConstraintViolation() {
+        // Given - e.g. another writer of the guests table checked a guest into the room
+        when(roomOccupancyIndex.isOccupied("101")).thenReturn(false);
+        when(guestRepository.saveAndFlush(any(Guest.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_guests_active_room"));
 
         // When & Then
         BusinessLogicException exception = assertThrows(
@@ -76,15 +145,15 @@ class GuestServiceTest {
                 () -> guestService.checkInGuest(testGuestDto)
         );
         assertEquals("Room 101 is already occupied", exception.getMessage());
-        verify(guestRepository).isGuestCheckedInByRoomNumber("101");
-        verify(guestRepository, never()).save(any(Guest.class));
+        verify(roomOccupancyIndex, never()).occupy(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void checkOutGuest_Success() {
         // Given
         when(guestRepository.findById(1L)).thenReturn(Optional.of(testGuest));
-        when(guestRepository.save(any(Guest.class))).thenReturn(testGuest);
+        when(guestRepository.saveAndFlush(any(Guest.class))).thenReturn(testGuest);
 
         // When
         GuestDto result = guestService.checkOutGuest(1L);
@@ -94,7 +163,41 @@ class GuestServiceTest {
         assertEquals("John Doe", result.getName());
         assertEquals("101", result.getRoomNumber());
         verify(guestRepository).findById(1L);
-        verify(guestRepository).save(any(Guest.class));
+        verify(guestRepository).saveAndFlush(any(Guest.class));
+        verify(roomOccupancyIndex).vacate("101", 1L);
+        verify(eventPublisher).publishEvent(argThat((LifecycleEventDto event) ->
+                event.getType() == LifecycleEventType.GUEST_CHECKED_OUT));
+    }
+
+    @Test
+    void checkOutGuestByRoomNumber_Success() {
+        // Given
+        when(roomOccupancyIndex.findGuestId("101")).thenReturn(Optional.of(1L));
+        when(guestRepository.findById(1L)).thenReturn(Optional.of(testGuest));
+        when(guestRepository.saveAndFlush(any(Guest.class))).thenReturn(testGuest);
+
+        // When
+        GuestDto result = guestService.checkOutGuestByRoomNumber("101");
+
+        // Then
+        assertEquals("101", result.getRoomNumber());
+        assertFalse(result.isCheckedIn());
+        verify(guestRepository, never()).findAllCheckedInGuests();
+        verify(roomOccupancyIndex).vacate("101", 1L);
+    }
+
+    @Test
+    void checkOutGuestByRoomNumber_RoomNotOccupied() {
+        // Given
+        when(roomOccupancyIndex.findGuestId("101")).thenReturn(Optional.empty());
+
+        // When & Then
+        ResourceNotFoundException exception = assertThrows(
+                ResourceNotFoundException.class,
+                () -> guestService.checkOutGuestByRoomNumber("101")
+        );
+        assertEquals("No checked-in guest found in room: 101", exception.getMessage());
+        verify(guestRepository, never()).findById(any());
     }
 
     @Test
@@ -109,7 +212,7 @@ class GuestServiceTest {
         );
         assertEquals("Guest not found with ID: 1", exception.getMessage());
         verify(guestRepository).findById(1L);
-        verify(guestRepository, never()).save(any(Guest.class));
+        verify(guestRepository, never()).saveAndFlush(any(Guest.class));
     }
 
     @Test
@@ -125,19 +228,20 @@ class GuestServiceTest {
         );
         assertEquals("Guest is already checked out", exception.getMessage());
         verify(guestRepository).findById(1L);
-        verify(guestRepository, never()).save(any(Guest.class));
+        verify(guestRepository, never()).saveAndFlush(any(Guest.class));
     }
 
     @Test
     void getAllCheckedInGuests_Success() {
         // Given
-        Guest guest1 = new Guest("John Doe", "101", LocalDateTime.now());
-        guest1.setId(1L);
-        Guest guest2 = new Guest("Jane Smith", "102", LocalDateTime.now());
-        guest2.setId(2L);
-        List<Guest> checkedInGuests = Arrays.asList(guest1, guest2);
+        GuestDto guest1 = new GuestDto(1L, "John Doe", "101", LocalDateTime.now(), null);
+        GuestDto guest2 = new GuestDto(2L, "Jane Smith", "102", LocalDateTime.now(), null);
+        List<GuestDto> checkedInGuests = Arrays.asList(guest1, guest2);
+        ParcelDto parcel = new ParcelDto(10L, "TRK123", "Amazon", "Package", LocalDateTime.now(), null, false,
+                1L, "John Doe", "101");
 
-        when(guestRepository.findAllCheckedInGuests()).thenReturn(checkedInGuests);
+        when(guestRepository.findCheckedInGuestDtos()).thenReturn(checkedInGuests);
+        when(parcelService.getParcelsByGuestIds(List.of(1L, 2L))).thenReturn(Map.of(1L, List.of(parcel)));
 
         // When
         List<GuestDto> result = guestService.getAllCheckedInGuests();
@@ -146,14 +250,19 @@ class GuestServiceTest {
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals("John Doe", result.get(0).getName());
+        assertTrue(result.get(0).isCheckedIn());
+        assertEquals(List.of(parcel), result.get(0).getParcels());
         assertEquals("Jane Smith", result.get(1).getName());
-        verify(guestRepository).findAllCheckedInGuests();
+        assertNull(result.get(1).getParcels());
+        verify(guestRepository).findCheckedInGuestDtos();
+        verify(guestRepository, never()).findAllCheckedInGuests();
     }
 
     @Test
     void getGuestById_Success() {
         // Given
-        when(guestRepository.findById(1L)).thenReturn(Optional.of(testGuest));
+        when(guestRepository.findGuestDtoById(1L))
+                .thenReturn(Optional.of(new GuestDto(1L, "John Doe", "101", LocalDateTime.now(), null)));
 
         // When
         GuestDto result = guestService.getGuestById(1L);
@@ -162,13 +271,14 @@ class GuestServiceTest {
         assertNotNull(result);
         assertEquals("John Doe", result.getName());
         assertEquals("101", result.getRoomNumber());
-        verify(guestRepository).findById(1L);
+        verify(guestRepository).findGuestDtoById(1L);
+        verify(parcelService).getParcelsByGuestIds(List.of(1L));
     }
 
     @Test
     void getGuestById_NotFound() {
         // Given
-        when(guestRepository.findById(1L)).thenReturn(Optional.empty());
+        when(guestRepository.findGuestDtoById(1L)).thenReturn(Optional.empty());
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(
@@ -176,49 +286,167 @@ class GuestServiceTest {
                 () -> guestService.getGuestById(1L)
         );
         assertEquals("Guest not found with ID: 1", exception.getMessage());
-        verify(guestRepository).findById(1L);
+        verify(guestRepository).findGuestDtoById(1L);
     }
 
     @Test
     void isGuestCheckedIn_True() {
         // Given
-        when(guestRepository.isGuestCheckedInByRoomNumber("101")).thenReturn(true);
+        when(roomOccupancyIndex.isOccupied("101")).thenReturn(true);
 
         // When
         boolean result = guestService.isGuestCheckedIn("101");
 
         // Then
         assertTrue(result);
-        verify(guestRepository).isGuestCheckedInByRoomNumber("101");
+        verify(roomOccupancyIndex).isOccupied("101");
+        verify(guestRepository, never()).isGuestCheckedInByRoomNumber(any());
     }
 
     @Test
     void isGuestCheckedIn_False() {
         // Given
-        when(guestRepository.isGuestCheckedInByRoomNumber("101")).thenReturn(false);
+        when(roomOccupancyIndex.isOccupied("101")).thenReturn(false);
 
         // When
         boolean result = guestService.isGuestCheckedIn("101");
 
         // Then
         assertFalse(result);
-        verify(guestRepository).isGuestCheckedInByRoomNumber("101");
+        verify(roomOccupancyIndex).isOccupied("101");
     }
 
     @Test
-    void getAllGuests_Success() {
+    void getGuests_FirstPage() {
         // Given
-        List<Guest> guests = List.of(testGuest);
-        when(guestRepository.findAll()).thenReturn(guests);
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        when(guestRepository.findGuestDtosAfter(0L, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(new GuestDto(1L, "John Doe", "101", LocalDateTime.now(), null)),
+                        pageRequest, true));
 
         // When
-        List<GuestDto> result = guestService.getAllGuests();
+        CursorPageDto<GuestDto> result = guestService.getGuests(null, 1);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("John Doe", result.get(0).getName());
-        assertEquals("101", result.get(0).getRoomNumber());
-        verify(guestRepository).findAll();
+        assertEquals(1, result.getItems().size());
+        assertEquals("John Doe", result.getItems().get(0).getName());
+        assertEquals("101", result.getItems().get(0).getRoomNumber());
+        assertTrue(result.isHasNext());
+        assertEquals(1L, result.getNextCursor());
+        verify(guestRepository).findGuestDtosAfter(0L, pageRequest);
+        verify(parcelService).getParcelsByGuestIds(List.of(1L));
+        verify(guestRepository, never()).findAll();
+    }
+
+    @Test
+    void getGuests_LastPage() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 50);
+        when(guestRepository.findGuestDtosAfter(1L, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(), pageRequest, false));
+
+        // When
+        CursorPageDto<GuestDto> result = guestService.getGuests(1L, 50);
+
+        // Then
+        assertTrue(result.getItems().isEmpty());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void checkOutGuests_ByIdAndRoom_SingleBulkUpdate() {
+        // Given
+        LocalDateTime checkInTime = LocalDateTime.now().minusDays(2);
+        ParcelDto leftBehind = new ParcelDto("TRK1", "Courier", "Box", 2L);
+        when(roomOccupancyIndex.findGuestId("102")).thenReturn(Optional.of(2L));
+        when(guestRepository.findGuestDtosByIds(Set.of(1L, 2L))).thenReturn(List.of(
+                new GuestDto(1L, "John Doe", "101", checkInTime, null),
+                new GuestDto(2L, "Jane Doe", "102", checkInTime, null)));
+        when(guestRepository.checkOutGuests(eq(Set.of(1L, 2L)), any(LocalDateTime.class))).thenReturn(2);
+        when(parcelService.getUncollectedParcelsByGuestIds(Set.of(1L, 2L))).thenReturn(Map.of(2L, List.of(leftBehind)));
+
+        // When
+        GuestCheckOutBatchResultDto result = guestService.checkOutGuests(List.of(1L), List.of("102"));
+
+        // Then
+        assertEquals(2, result.getCheckedOut());
+        assertEquals(0, result.getRejected());
+        GuestCheckOutItemResultDto first = result.getResults().get(0);
+        GuestCheckOutItemResultDto second = result.getResults().get(1);
+        assertTrue(first.isSuccess());
+        assertFalse(first.getGuest().isCheckedIn());
+        assertNotNull(first.getGuest().getCheckOutTime());
+        assertTrue(first.getUncollectedParcels().isEmpty());
+        assertEquals("102", second.getRoomNumber());
+        assertEquals(List.of(leftBehind), second.getUncollectedParcels());
+        verify(guestRepository).checkOutGuests(eq(Set.of(1L, 2L)), any(LocalDateTime.class));
+        verify(roomOccupancyIndex).vacate("101", 1L);
+        verify(roomOccupancyIndex).vacate("102", 2L);
+        verify(eventPublisher, times(2)).publishEvent(any(LifecycleEventDto.class));
+        verify(guestRepository, never()).save(any());
+    }
+
+    @Test
+    void checkOutGuests_InvalidEntries_RejectedIndividually() {
+        // Given
+        LocalDateTime checkInTime = LocalDateTime.now().minusDays(2);
+        when(roomOccupancyIndex.findGuestId("999")).thenReturn(Optional.empty());
+        when(guestRepository.findGuestDtosByIds(Set.of(1L, 3L, 4L))).thenReturn(List.of(
+                new GuestDto(1L, "John Doe", "101", checkInTime, null),
+                new GuestDto(3L, "Gone Guest", "103", checkInTime, LocalDateTime.now())));
+        when(guestRepository.checkOutGuests(eq(Set.of(1L)), any(LocalDateTime.class))).thenReturn(1);
+        when(parcelService.getUncollectedParcelsByGuestIds(Set.of(1L))).thenReturn(Map.of());
+
+        // When
+        GuestCheckOutBatchResultDto result = guestService.checkOutGuests(List.of(1L, 3L, 4L, 1L), List.of("999"));
+
+        // Then
+        assertEquals(1, result.getCheckedOut());
+        assertEquals(4, result.getRejected());
+        List<GuestCheckOutItemResultDto> items = result.getResults();
+        assertTrue(items.get(0).isSuccess());
+        assertEquals("Guest is already checked out", items.get(1).getError());
+        assertEquals("Guest not found with ID: 4", items.get(2).getError());
+        assertEquals("Guest 1 appears more than once in the request", items.get(3).getError());
+        assertEquals("No checked-in guest found in room: 999", items.get(4).getError());
+        verify(roomOccupancyIndex, never()).vacate(eq("103"), any());
+    }
+
+    @Test
+    void checkOutGuests_NothingToCheckOut_NoUpdate() {
+        // Given
+        when(roomOccupancyIndex.findGuestId("999")).thenReturn(Optional.empty());
+
+        // When
+        GuestCheckOutBatchResultDto result = guestService.checkOutGuests(null, List.of("999"));
+
+        // Then
+        assertEquals(0, result.getCheckedOut());
+        assertEquals(1, result.getRejected());
+        verify(guestRepository, never()).findGuestDtosByIds(any());
+        verify(guestRepository, never()).checkOutGuests(any(), any());
+    }
+
+    @Test
+    void checkOutGuests_EmptyRequest() {
+        // When & Then
+        BusinessLogicException exception = assertThrows(BusinessLogicException.class,
+                () -> guestService.checkOutGuests(List.of(), null));
+        assertEquals("At least one guest ID or room number is required", exception.getMessage());
+    }
+
+    @Test
+    void checkOutGuests_ConcurrentCheckOut_FailsBatch() {
+        // Given
+        when(guestRepository.findGuestDtosByIds(Set.of(1L))).thenReturn(List.of(
+                new GuestDto(1L, "John Doe", "101", LocalDateTime.now(), null)));
+        when(guestRepository.checkOutGuests(eq(Set.of(1L)), any(LocalDateTime.class))).thenReturn(0);
+
+        // When & Then
+        assertThrows(BusinessLogicException.class, () -> guestService.checkOutGuests(List.of(1L), null));
+        verify(roomOccupancyIndex, never()).vacate(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
-} 
\ No newline at end of file
+}
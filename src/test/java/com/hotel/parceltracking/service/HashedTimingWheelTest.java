@@ -0,0 +1,107 @@
+package com.hotel.parceltracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HashedTimingWheel.
+ */
+class HashedTimingWheelTest {
+
+    private final HashedTimingWheel<Long, String> wheel = new HashedTimingWheel<>(8, Duration.ofMinutes(1));
+
+    @Test
+    void tick_ExpiresTimeoutsWhenDue() {
+        // Given
+        wheel.schedule(1L, "one", Duration.ofMinutes(1));
+        wheel.schedule(3L, "three", Duration.ofSeconds(150));
+
+        // When & Then - 150 s rounds up to the third tick
+        assertEquals(List.of("one"), wheel.tick());
+        assertEquals(List.of(), wheel.tick());
+        assertEquals(List.of("three"), wheel.tick());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void tick_PastDelayExpiresOnNextTick() {
+        // Given
+        wheel.schedule(1L, "late", Duration.ofMinutes(-5));
+
+        // When & Then
+        assertEquals(List.of("late"), wheel.tick());
+    }
+
+    @Test
+    void tick_TimeoutBeyondOneRotation_WaitsForItsRound() {
+        // Given - due in 2.5 rotations of the 8-slot wheel
+        wheel.schedule(1L, "later", Duration.ofMinutes(20));
+
+        // When
+        List<Integer> expiredAt = new ArrayList<>();
+        for (int tick = 1; tick <= 24; tick++) {
+            if (!wheel.tick().isEmpty()) {
+                expiredAt.add(tick);
+            }
+        }
+
+        // Then
+        assertEquals(List.of(20), expiredAt);
+    }
+
+    @Test
+    void cancel_RemovesTimeout() {
+        // Given
+        wheel.schedule(1L, "one", Duration.ofMinutes(1));
+        wheel.schedule(2L, "two", Duration.ofMinutes(1));
+
+        // When
+        String cancelled = wheel.cancel(1L);
+
+        // Then
+        assertEquals("one", cancelled);
+        assertNull(wheel.cancel(1L));
+        assertEquals(List.of("two"), wheel.tick());
+    }
+
+    @Test
+    void schedule_ReplacesExistingTimeout() {
+        // Given
+        wheel.schedule(1L, "first", Duration.ofMinutes(1));
+
+        // When
+        wheel.schedule(1L, "second", Duration.ofMinutes(2));
+
+        // Then
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.tick());
+        assertEquals(List.of("second"), wheel.tick());
+    }
+
+    @Test
+    void tick_ManyTimeoutsInOneBucket_ExpireTogether() {
+        // Given - every timeout lands in the same bucket, in different rounds
+        for (long key = 0; key < 100; key++) {
+            wheel.schedule(key, "timeout-" + key, Duration.ofMinutes(1 + 8 * (key % 3)));
+        }
+
+        // When
+        List<Integer> expiredPerRotation = new ArrayList<>();
+        for (int rotation = 0; rotation < 3; rotation++) {
+            int expired = 0;
+            for (int tick = 0; tick < 8; tick++) {
+                expired += wheel.tick().size();
+            }
+            expiredPerRotation.add(expired);
+        }
+
+        // Then
+        assertEquals(List.of(34, 33, 33), expiredPerRotation);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,116 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LifecycleEventBroadcaster.
+ */
+class LifecycleEventBroadcasterTest {
+
+    private LifecycleEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new LifecycleEventBroadcaster(new SimpleMeterRegistry(), 3, 16, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void publish_AssignsSequentialIds() {
+        // Given
+        LifecycleEventDto first = parcelEvent("TRK1");
+        LifecycleEventDto second = guestEvent("101");
+
+        // When
+        broadcaster.publish(first);
+        broadcaster.publish(second);
+
+        // Then
+        assertEquals(1, first.getId());
+        assertEquals(2, second.getId());
+    }
+
+    @Test
+    void eventsAfter_ReturnsMissedEvents() {
+        // Given
+        broadcaster.publish(parcelEvent("TRK1"));
+        broadcaster.publish(parcelEvent("TRK2"));
+        broadcaster.publish(parcelEvent("TRK3"));
+
+        // When
+        Optional<List<LifecycleEventDto>> result = broadcaster.eventsAfter(1);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(List.of(2L, 3L), result.get().stream().map(LifecycleEventDto::getId).toList());
+    }
+
+    @Test
+    void eventsAfter_UpToDate_ReturnsNoEvents() {
+        // Given
+        broadcaster.publish(parcelEvent("TRK1"));
+
+        // When
+        Optional<List<LifecycleEventDto>> result = broadcaster.eventsAfter(1);
+
+        // Then
+        assertEquals(Optional.of(List.of()), result);
+    }
+
+    @Test
+    void eventsAfter_EvictedFromBuffer_ReturnsEmpty() {
+        // Given - the buffer holds 3 events, so event 1 has been evicted
+        for (int i = 1; i <= 4; i++) {
+            broadcaster.publish(parcelEvent("TRK" + i));
+        }
+
+        // When & Then
+        assertTrue(broadcaster.eventsAfter(0).isEmpty());
+        assertEquals(3, broadcaster.eventsAfter(1).orElseThrow().size());
+    }
+
+    @Test
+    void eventsAfter_UnknownFutureId_ReturnsEmpty() {
+        // Given - e.g. an ID from before a restart
+        broadcaster.publish(parcelEvent("TRK1"));
+
+        // When & Then
+        assertTrue(broadcaster.eventsAfter(42).isEmpty());
+    }
+
+    @Test
+    void subscribe_RegistersSubscriber() {
+        // When
+        broadcaster.subscribe(null);
+        broadcaster.subscribe(0L);
+
+        // Then
+        assertEquals(2, broadcaster.subscriberCount());
+    }
+
+    private static LifecycleEventDto parcelEvent(String trackingNumber) {
+        return LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_ACCEPTED,
+                new ParcelDto(trackingNumber, "Courier", "Box", 1L));
+    }
+
+    private static LifecycleEventDto guestEvent(String roomNumber) {
+        return LifecycleEventDto.ofGuest(LifecycleEventType.GUEST_CHECKED_IN, new GuestDto("Guest", roomNumber));
+    }
+}
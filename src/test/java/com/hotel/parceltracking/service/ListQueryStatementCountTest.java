@@ -0,0 +1,150 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.CursorPageDto;
+import com.hotel.parceltracking.dto.GuestCheckOutBatchResultDto;
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests asserting that list operations run a fixed number of SQL statements,
+ * independent of how many guests and parcels they return (no N+1 lazy loading), and that
+ * read endpoints are served from DTO projections without loading any entities.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statement-count-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListQueryStatementCountTest {
+
+    private static final int GUEST_COUNT = 10;
+    private static final int PARCELS_PER_GUEST = 3;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void seedData() {
+        for (int i = 0; i < GUEST_COUNT; i++) {
+            GuestDto guest = guestService.checkInGuest(new GuestDto("Guest " + i, "S" + i));
+            for (int j = 0; j < PARCELS_PER_GUEST; j++) {
+                parcelService.acceptParcel(new ParcelDto("SC-" + i + "-" + j, "Courier", "Box", guest.getId()));
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void getAllCheckedInGuests_GuestsPlusOneParcelSelect() {
+        // When
+        List<GuestDto> result = guestService.getAllCheckedInGuests();
+
+        // Then
+        assertEquals(GUEST_COUNT, result.size());
+        assertEquals(PARCELS_PER_GUEST, result.get(0).getParcels().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getGuests_GuestsPlusOneBatchedParcelSelect() {
+        // When
+        CursorPageDto<GuestDto> result = guestService.getGuests(null, GUEST_COUNT);
+
+        // Then
+        assertEquals(GUEST_COUNT, result.getItems().size());
+        assertEquals(PARCELS_PER_GUEST, result.getItems().get(GUEST_COUNT - 1).getParcels().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getUncollectedParcels_SingleStatement() {
+        // When
+        CursorPageDto<ParcelDto> result = parcelService.getUncollectedParcels(null, 100);
+
+        // Then
+        assertEquals(GUEST_COUNT * PARCELS_PER_GUEST, result.getItems().size());
+        assertNotNull(result.getItems().get(0).getGuestName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getParcels_SingleStatement() {
+        // When
+        CursorPageDto<ParcelDto> result = parcelService.getParcels(null, 100);
+
+        // Then
+        assertEquals(GUEST_COUNT * PARCELS_PER_GUEST, result.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getParcelsForCheckedInGuests_SingleStatement() {
+        // When
+        List<ParcelDto> result = parcelService.getParcelsForCheckedInGuests();
+
+        // Then
+        assertEquals(GUEST_COUNT * PARCELS_PER_GUEST, result.size());
+        assertNotNull(result.get(0).getGuestRoomNumber());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getAvailableParcelsForGuestByRoomNumber_SingleStatement() {
+        // When
+        List<ParcelDto> result = parcelService.getAvailableParcelsForGuestByRoomNumber("S1");
+
+        // Then
+        assertEquals(PARCELS_PER_GUEST, result.size());
+        assertEquals("Guest 1", result.get(0).getGuestName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void checkOutGuests_FixedStatementsForWholeBatch() {
+        // Given
+        GuestDto first = guestService.checkInGuest(new GuestDto("Departing 1", "D1"));
+        GuestDto second = guestService.checkInGuest(new GuestDto("Departing 2", "D2"));
+        statistics.clear();
+
+        // When
+        GuestCheckOutBatchResultDto result = guestService.checkOutGuests(List.of(first.getId()), List.of("D2"));
+
+        // Then - one guest select, one bulk update, one uncollected parcel select
+        assertEquals(2, result.getCheckedOut());
+        assertEquals(second.getId(), result.getResults().get(1).getGuestId());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertFalse(guestService.isGuestCheckedIn("D1"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.exception.BusinessLogicException;
+import com.hotel.parceltracking.model.Guest;
+import com.hotel.parceltracking.model.Parcel;
+import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for optimistic locking of parcels and guests and the retry of
+ * writes that lose a concurrent update.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:optimistic-locking-test;DB_CLOSE_DELAY=-1")
+class OptimisticLockingTest {
+
+    private static final int DESKS = 8;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private ParcelRepository parcelRepository;
+
+    @Test
+    void staleParcelWrite_IsRejected() {
+        // Given - two desks read the same parcel
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Stale Guest", "O1"));
+        Long parcelId = parcelService.acceptParcel(new ParcelDto("OL-STALE", "Courier", "Box", guest.getId())).getId();
+        Parcel firstDesk = parcelRepository.findById(parcelId).orElseThrow();
+        Parcel secondDesk = parcelRepository.findById(parcelId).orElseThrow();
+
+        // When - the first desk collects it
+        firstDesk.markAsCollected();
+        parcelRepository.saveAndFlush(firstDesk);
+
+        // Then - the second desk's write is detected as stale instead of overwriting
+        secondDesk.markAsCollected();
+        assertThrows(OptimisticLockingFailureException.class, () -> parcelRepository.saveAndFlush(secondDesk));
+        assertEquals(1L, parcelRepository.findById(parcelId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void concurrentCollection_ExactlyOneDeskCollectsEachParcel() throws InterruptedException {
+        // Given - every parcel is scanned by 8 desks at once
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Busy Guest", "O2"));
+        List<Long> parcelIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            parcelIds.add(parcelService.acceptParcel(new ParcelDto("OL-RACE-" + i, "Courier", "Box", guest.getId())).getId());
+        }
+        AtomicInteger collected = new AtomicInteger();
+        AtomicInteger alreadyCollected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        // When
+        ExecutorService desks = Executors.newFixedThreadPool(DESKS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (Long parcelId : parcelIds) {
+            for (int desk = 0; desk < DESKS; desk++) {
+                desks.execute(() -> {
+                    try {
+                        start.await();
+                        parcelService.collectParcel(parcelId);
+                        collected.incrementAndGet();
+                    } catch (BusinessLogicException e) {
+                        alreadyCollected.incrementAndGet();
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                });
+            }
+        }
+        start.countDown();
+        desks.shutdown();
+        assertTrue(desks.awaitTermination(60, TimeUnit.SECONDS));
+
+        // Then - losers are retried and find the parcel collected; none is collected twice
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertEquals(parcelIds.size(), collected.get());
+        assertEquals(parcelIds.size() * (DESKS - 1), alreadyCollected.get());
+        for (Long parcelId : parcelIds) {
+            assertEquals(1L, parcelRepository.findById(parcelId).orElseThrow().getVersion());
+        }
+    }
+
+    @Test
+    void bulkCheckOut_BumpsVersionSoStaleGuestWritesFail() {
+        // Given
+        GuestDto checkedIn = guestService.checkInGuest(new GuestDto("Departing Guest", "O3"));
+        Guest staleGuest = guestRepository.findById(checkedIn.getId()).orElseThrow();
+
+        // When
+        guestService.checkOutGuests(List.of(checkedIn.getId()), null);
+
+        // Then
+        assertEquals(staleGuest.getVersion() + 1, guestRepository.findById(checkedIn.getId()).orElseThrow().getVersion());
+        staleGuest.checkOut();
+        assertThrows(OptimisticLockingFailureException.class, () -> guestRepository.saveAndFlush(staleGuest));
+    }
+}
@@ -0,0 +1,147 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.OverdueParcelDto;
+import com.hotel.parceltracking.dto.OverdueReason;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for overdue parcel detection.
+ * With a zero SLA every parcel is due on the next tick; ticks are driven by the tests.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:overdue-test;DB_CLOSE_DELAY=-1",
+        "parcel-tracking.overdue.sla=0s",
+        "parcel-tracking.overdue.tick=1h"
+})
+@RecordApplicationEvents
+class OverdueParcelTrackerTest {
+
+    @Autowired
+    private OverdueParcelTracker overdueParcelTracker;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelRepository parcelRepository;
+
+    @Autowired
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void uncollectedParcel_FlaggedWhenDeadlinePasses() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Slow Guest", "O1"));
+        ParcelDto parcel = parcelService.acceptParcel(new ParcelDto("OVERDUE-1", "Courier", "Box", guest.getId()));
+        assertTrue(findOverdue(parcel).isEmpty());
+
+        // When
+        overdueParcelTracker.tick();
+
+        // Then
+        OverdueParcelDto overdue = findOverdue(parcel).orElseThrow();
+        assertEquals(OverdueReason.SLA_EXCEEDED, overdue.getReason());
+        assertEquals(parcel.getArrivalTime(), overdue.getDeadline());
+        assertTrue(events.stream(LifecycleEventDto.class).anyMatch(event ->
+                event.getType() == LifecycleEventType.PARCEL_OVERDUE && parcel.getId().equals(event.getParcel().getId())));
+
+        // When - the parcel is finally collected
+        parcelService.collectParcel(parcel.getId());
+
+        // Then
+        assertTrue(findOverdue(parcel).isEmpty());
+    }
+
+    @Test
+    void collectedParcel_NeverFlagged() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Quick Guest", "O2"));
+        ParcelDto parcel = parcelService.acceptParcel(new ParcelDto("OVERDUE-2", "Courier", "Box", guest.getId()));
+        parcelService.collectParcelByTrackingNumber("OVERDUE-2");
+
+        // When
+        overdueParcelTracker.tick();
+
+        // Then
+        assertTrue(findOverdue(parcel).isEmpty());
+        assertTrue(events.stream(LifecycleEventDto.class).noneMatch(event ->
+                event.getType() == LifecycleEventType.PARCEL_OVERDUE && parcel.getId().equals(event.getParcel().getId())));
+    }
+
+    @Test
+    void checkOut_FlagsParcelsLeftBehind() {
+        // Given
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Departing Guest", "O3"));
+        ParcelDto forgotten = parcelService.acceptParcel(new ParcelDto("OVERDUE-3", "Courier", "Box", guest.getId()));
+        ParcelDto collected = parcelService.acceptParcel(new ParcelDto("OVERDUE-4", "Courier", "Box", guest.getId()));
+        parcelService.collectParcel(collected.getId());
+
+        // When - no tick needed
+        guestService.checkOutGuest(guest.getId());
+
+        // Then
+        assertEquals(OverdueReason.GUEST_CHECKED_OUT, findOverdue(forgotten).orElseThrow().getReason());
+        assertTrue(findOverdue(collected).isEmpty());
+
+        // When - its deadline passes later
+        overdueParcelTracker.tick();
+
+        // Then - still flagged for the check-out
+        assertEquals(OverdueReason.GUEST_CHECKED_OUT, findOverdue(forgotten).orElseThrow().getReason());
+    }
+
+    @Test
+    void rebuild_SchedulesAndFlagsExistingParcels() {
+        // Given
+        GuestDto staying = guestService.checkInGuest(new GuestDto("Staying Guest", "O5"));
+        ParcelDto waiting = parcelService.acceptParcel(new ParcelDto("OVERDUE-5", "Courier", "Box", staying.getId()));
+        GuestDto departed = guestService.checkInGuest(new GuestDto("Departed Guest", "O6"));
+        ParcelDto leftBehind = parcelService.acceptParcel(new ParcelDto("OVERDUE-6", "Courier", "Box", departed.getId()));
+        guestService.checkOutGuest(departed.getId());
+
+        // When - a tracker started against the same database, with a day's SLA
+        OverdueParcelTracker restarted = new OverdueParcelTracker(parcelRepository, roomOccupancyIndex, eventPublisher,
+                transactionManager, Duration.ofDays(1), Duration.ofMinutes(1), 64);
+        restarted.rebuild();
+
+        // Then
+        assertTrue(restarted.getOverdueParcels().stream().noneMatch(overdue -> overdue.getParcel().getId().equals(waiting.getId())));
+        assertTrue(restarted.getOverdueParcels().stream().anyMatch(overdue ->
+                overdue.getParcel().getId().equals(leftBehind.getId()) && overdue.getReason() == OverdueReason.GUEST_CHECKED_OUT));
+        assertTrue(restarted.scheduledCount() >= 1);
+    }
+
+    private Optional<OverdueParcelDto> findOverdue(ParcelDto parcel) {
+        return overdueParcelTracker.getOverdueParcels().stream()
+                .filter(overdue -> overdue.getParcel().getId().equals(parcel.getId()))
+                .findFirst();
+    }
+}
@@ -0,0 +1,120 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.config.CacheConfig;
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the parcel-by-tracking-number cache.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:parcel-lookup-cache-test;DB_CLOSE_DELAY=-1")
+class ParcelLookupCacheTest {
+
+    private static final AtomicInteger ROOMS = new AtomicInteger();
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache cache;
+    private Long guestId;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfig.PARCELS_BY_TRACKING_NUMBER);
+        guestId = guestService.checkInGuest(new GuestDto("Cache Guest", "C" + ROOMS.incrementAndGet())).getId();
+    }
+
+    @Test
+    void getParcelByTrackingNumber_CachesResult() {
+        // Given
+        parcelService.acceptParcel(new ParcelDto("CACHE-1", "Courier", "Box", guestId));
+
+        // When
+        ParcelDto first = parcelService.getParcelByTrackingNumber("CACHE-1");
+
+        // Then
+        assertNotNull(cache.get("CACHE-1"));
+        assertEquals(first, parcelService.getParcelByTrackingNumber("CACHE-1"));
+    }
+
+    @Test
+    void getParcelByTrackingNumber_ReturnsCopiesOfCachedParcel() {
+        // Given
+        parcelService.acceptParcel(new ParcelDto("CACHE-4", "Courier", "Box", guestId));
+        ParcelDto first = parcelService.getParcelByTrackingNumber("CACHE-4");
+
+        // When
+        first.setDescription("Changed by a caller");
+
+        // Then
+        ParcelDto second = parcelService.getParcelByTrackingNumber("CACHE-4");
+        assertNotSame(first, second);
+        assertEquals("Box", second.getDescription());
+    }
+
+    @Test
+    void getParcelByTrackingNumber_NotFound_DoesNotCache() {
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> parcelService.getParcelByTrackingNumber("CACHE-MISSING"));
+        assertNull(cache.get("CACHE-MISSING"));
+    }
+
+    @Test
+    void acceptParcels_EvictsEntries() {
+        // Given - a stale entry for a tracking number that is about to be accepted
+        cache.put("CACHE-5", new ParcelDto("CACHE-5", "Stale", "Box", guestId));
+
+        // When
+        parcelService.acceptParcels(List.of(new ParcelDto("CACHE-5", "Courier", "Box", guestId)));
+
+        // Then
+        assertNull(cache.get("CACHE-5"));
+        assertEquals("Courier", parcelService.getParcelByTrackingNumber("CACHE-5").getSender());
+    }
+
+    @Test
+    void collectParcelByTrackingNumber_EvictsEntry() {
+        // Given
+        parcelService.acceptParcel(new ParcelDto("CACHE-2", "Courier", "Box", guestId));
+        parcelService.getParcelByTrackingNumber("CACHE-2");
+
+        // When
+        parcelService.collectParcelByTrackingNumber("CACHE-2");
+
+        // Then
+        assertNull(cache.get("CACHE-2"));
+        assertTrue(parcelService.getParcelByTrackingNumber("CACHE-2").isCollected());
+    }
+
+    @Test
+    void collectParcel_EvictsEntry() {
+        // Given
+        ParcelDto accepted = parcelService.acceptParcel(new ParcelDto("CACHE-3", "Courier", "Box", guestId));
+        parcelService.getParcelByTrackingNumber("CACHE-3");
+
+        // When
+        parcelService.collectParcel(accepted.getId());
+
+        // Then
+        assertNull(cache.get("CACHE-3"));
+        assertTrue(parcelService.getParcelByTrackingNumber("CACHE-3").isCollected());
+    }
+}
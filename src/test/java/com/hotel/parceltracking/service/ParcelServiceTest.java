@@ -1,11 +1,16 @@
 package com.hotel.parceltracking.service;
 
+import com.hotel.parceltracking.dto.CursorPageDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelBatchResultDto;
 import com.hotel.parceltracking.dto.ParcelDto;
 import com.hotel.parceltracking.exception.BusinessLogicException;
 import com.hotel.parceltracking.exception.ResourceNotFoundException;
 import com.hotel.parceltracking.model.Guest;
 import com.hotel.parceltracking.model.Parcel;
 import com.hotel.parceltracking.repository.GuestRepository;
+import com.hotel.parceltracking.repository.ParcelHistoryRepository;
 import com.hotel.parceltracking.repository.ParcelRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,14 +18,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,12 +51,34 @@ class ParcelServiceTest {
     @Mock
     private GuestRepository guestRepository;
 
+    @Mock
+    private ParcelHistoryRepository parcelHistoryRepository;
+
+    @Mock
+    private TrackingNumberBloomFilter trackingNumberFilter;
+
+    @Mock
+    private ParcelStatistics parcelStatistics;
+
+    @Mock
+    private OverdueParcelTracker overdueParcelTracker;
+
+    @Mock
+    private TrackingNumberPrefixIndex trackingNumberPrefixIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ParcelService parcelService;
 
     private Guest testGuest;
     private Parcel testParcel;
     private ParcelDto testParcelDto;
+    private ParcelDto testParcelView;
 
     @BeforeEach
     void setUp() {
@@ -51,14 +89,18 @@ class ParcelServiceTest {
         testParcel.setId(1L);
 
         testParcelDto = new ParcelDto("TRK123", "Amazon", "Package", 1L);
+
+        testParcelView = new ParcelDto(1L, "TRK123", "Amazon", "Package", LocalDateTime.now(), null, false,
+                1L, "John Doe", "101");
     }
 
     @Test
     void acceptParcel_Success() {
         // Given
         when(guestRepository.findById(1L)).thenReturn(Optional.of(testGuest));
+        when(trackingNumberFilter.mightContain("TRK123")).thenReturn(true);
         when(parcelRepository.findByTrackingNumber("TRK123")).thenReturn(Optional.empty());
-        when(parcelRepository.save(any(Parcel.class))).thenReturn(testParcel);
+        when(parcelRepository.saveAndFlush(any(Parcel.class))).thenReturn(testParcel);
 
         // When
         ParcelDto result = parcelService.acceptParcel(testParcelDto);
@@ -71,7 +113,43 @@ class ParcelServiceTest {
         assertEquals(1L, result.getGuestId());
         verify(guestRepository).findById(1L);
         verify(parcelRepository).findByTrackingNumber("TRK123");
-        verify(parcelRepository).save(any(Parcel.class));
+        verify(trackingNumberFilter).recordFalsePositive();
+        verify(parcelRepository).saveAndFlush(any(Parcel.class));
+        verify(eventPublisher).publishEvent(argThat((LifecycleEventDto event) ->
+                event.getType() == LifecycleEventType.PARCEL_ACCEPTED && "TRK123".equals(event.getParcel().getTrackingNumber())));
+    }
+
+    @Test
+    void acceptParcel_FilterDefinitelyAbsent_SkipsDuplicateQuery() {
+        // Given
+        when(guestRepository.findById(1L)).thenReturn(Optional.of(testGuest));
+        when(trackingNumberFilter.mightContain("TRK123")).thenReturn(false);
+        when(parcelRepository.saveAndFlush(any(Parcel.class))).thenReturn(testParcel);
+
+        // When
+        ParcelDto result = parcelService.acceptParcel(testParcelDto);
+
+        // Then
+        assertEquals("TRK123", result.getTrackingNumber());
+        verify(parcelRepository, never()).findByTrackingNumber(any());
+        verify(trackingNumberFilter, never()).recordFalsePositive();
+    }
+
+    @Test
+    void acceptParcel_UniqueConstraintViolation() {
+        // Given
+        when(guestRepository.findById(1L)).thenReturn(Optional.of(testGuest));
+        when(trackingNumberFilter.mightContain("TRK123")).thenReturn(false);
+        when(parcelRepository.saveAndFlush(any(Parcel.class)))
+                .thenThrow(new DataIntegrityViolationException("unique constraint"));
+
+        // When & Then
+        BusinessLogicException exception = assertThrows(
+                BusinessLogicException.class,
+                () -> parcelService.acceptParcel(testParcelDto)
+        );
+        assertEquals("Parcel with tracking number TRK123 already exists", exception.getMessage());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -86,7 +164,7 @@ class ParcelServiceTest {
         );
         assertEquals("Guest not found with ID: 1", exception.getMessage());
         verify(guestRepository).findById(1L);
-        verify(parcelRepository, never()).save(any(Parcel.class));
+        verify(parcelRepository, never()).saveAndFlush(any(Parcel.class));
     }
 
     @Test
@@ -102,13 +180,14 @@ class ParcelServiceTest {
         );
         assertEquals("Cannot accept parcel for guest who is not checked in: John Doe", exception.getMessage());
         verify(guestRepository).findById(1L);
-        verify(parcelRepository, never()).save(any(Parcel.class));
+        verify(parcelRepository, never()).saveAndFlush(any(Parcel.class));
     }
 
     @Test
     void acceptParcel_DuplicateTrackingNumber() {
         // Given
         when(guestRepository.findById(1L)).thenReturn(Optional.of(testGuest));
+        when(trackingNumberFilter.mightContain("TRK123")).thenReturn(true);
         when(parcelRepository.findByTrackingNumber("TRK123")).thenReturn(Optional.of(testParcel));
 
         // When & Then
@@ -119,14 +198,92 @@ class ParcelServiceTest {
         assertEquals("Parcel with tracking number TRK123 already exists", exception.getMessage());
         verify(guestRepository).findById(1L);
         verify(parcelRepository).findByTrackingNumber("TRK123");
+        verify(parcelRepository, never()).saveAndFlush(any(Parcel.class));
+    }
+
+    @Test
+    void acceptParcels_Success() {
+        // Given
+        ParcelDto secondParcelDto = new ParcelDto("TRK456", "DHL", "Letter", 1L);
+        when(guestRepository.findAllById(any())).thenReturn(List.of(testGuest));
+        when(trackingNumberFilter.mightContain("TRK123")).thenReturn(true);
+        when(trackingNumberFilter.mightContain("TRK456")).thenReturn(false);
+        when(parcelRepository.findExistingTrackingNumbers(Set.of("TRK123"))).thenReturn(List.of());
+        when(parcelRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ParcelBatchResultDto result = parcelService.acceptParcels(List.of(testParcelDto, secondParcelDto));
+
+        // Then
+        assertEquals(2, result.getAccepted());
+        assertEquals(0, result.getRejected());
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertEquals("TRK123", result.getResults().get(0).getParcel().getTrackingNumber());
+        assertEquals("TRK456", result.getResults().get(1).getParcel().getTrackingNumber());
+        verify(guestRepository).findAllById(any());
+        verify(parcelRepository).findExistingTrackingNumbers(Set.of("TRK123"));
+        verify(trackingNumberFilter).recordFalsePositives(1);
+        verify(parcelRepository).saveAllAndFlush(anyList());
         verify(parcelRepository, never()).save(any(Parcel.class));
     }
 
+    @Test
+    void acceptParcels_RejectsInvalidItemsIndividually() {
+        // Given
+        ParcelDto unknownGuest = new ParcelDto("TRK456", "DHL", "Letter", 99L);
+        ParcelDto existing = new ParcelDto("TRK789", "UPS", "Box", 1L);
+        ParcelDto duplicateInBatch = new ParcelDto("TRK123", "FedEx", "Box", 1L);
+        when(guestRepository.findAllById(any())).thenReturn(List.of(testGuest));
+        when(trackingNumberFilter.mightContain(any())).thenReturn(true);
+        when(parcelRepository.findExistingTrackingNumbers(any())).thenReturn(List.of("TRK789"));
+        when(parcelRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ParcelBatchResultDto result = parcelService.acceptParcels(
+                List.of(testParcelDto, unknownGuest, existing, duplicateInBatch));
+
+        // Then
+        assertEquals(1, result.getAccepted());
+        assertEquals(3, result.getRejected());
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertEquals("Guest not found with ID: 99", result.getResults().get(1).getError());
+        assertEquals("Parcel with tracking number TRK789 already exists", result.getResults().get(2).getError());
+        assertEquals("Tracking number TRK123 appears more than once in the batch", result.getResults().get(3).getError());
+        verify(trackingNumberFilter).recordFalsePositives(2);
+    }
+
+    @Test
+    void acceptParcels_ConcurrentDuplicate_FailsForRetry() {
+        // Given
+        when(guestRepository.findAllById(any())).thenReturn(List.of(testGuest));
+        when(parcelRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When & Then
+        assertThrows(OptimisticLockingFailureException.class, () -> parcelService.acceptParcels(List.of(testParcelDto)));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void acceptParcels_GuestNotCheckedIn() {
+        // Given
+        testGuest.checkOut();
+        when(guestRepository.findAllById(any())).thenReturn(List.of(testGuest));
+        when(parcelRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ParcelBatchResultDto result = parcelService.acceptParcels(List.of(testParcelDto));
+
+        // Then
+        assertEquals(0, result.getAccepted());
+        assertFalse(result.getResults().get(0).isSuccess());
+        assertEquals("Cannot accept parcel for guest who is not checked in: John Doe", result.getResults().get(0).getError());
+    }
+
     @Test
     void collectParcel_Success() {
         // Given
         when(parcelRepository.findById(1L)).thenReturn(Optional.of(testParcel));
-        when(parcelRepository.save(any(Parcel.class))).thenReturn(testParcel);
+        when(parcelRepository.saveAndFlush(any(Parcel.class))).thenReturn(testParcel);
 
         // When
         ParcelDto result = parcelService.collectParcel(1L);
@@ -135,7 +292,9 @@ class ParcelServiceTest {
         assertNotNull(result);
         assertEquals("TRK123", result.getTrackingNumber());
         verify(parcelRepository).findById(1L);
-        verify(parcelRepository).save(any(Parcel.class));
+        verify(parcelRepository).saveAndFlush(any(Parcel.class));
+        verify(eventPublisher).publishEvent(argThat((LifecycleEventDto event) ->
+                event.getType() == LifecycleEventType.PARCEL_COLLECTED));
     }
 
     @Test
@@ -150,7 +309,8 @@ class ParcelServiceTest {
         );
         assertEquals("Parcel not found with ID: 1", exception.getMessage());
         verify(parcelRepository).findById(1L);
-        verify(parcelRepository, never()).save(any(Parcel.class));
+        verify(parcelRepository, never()).saveAndFlush(any(Parcel.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -166,15 +326,17 @@ class ParcelServiceTest {
         );
         assertEquals("Parcel is already collected", exception.getMessage());
         verify(parcelRepository).findById(1L);
-        verify(parcelRepository, never()).save(any(Parcel.class));
+        verify(parcelRepository, never()).saveAndFlush(any(Parcel.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void collectParcelByTrackingNumber_Success() {
         // Given
-        when(parcelRepository.findByTrackingNumber("TRK123")).thenReturn(Optional.of(testParcel));
-        when(parcelRepository.findById(1L)).thenReturn(Optional.of(testParcel));
-        when(parcelRepository.save(any(Parcel.class))).thenReturn(testParcel);
+        ParcelDto collected = ParcelDto.of(1L, "TRK123", "Amazon", "Package", LocalDateTime.now().minusHours(1),
+                LocalDateTime.now(), true, 1L, "John Doe", "101");
+        when(parcelRepository.collectByTrackingNumber(eq("TRK123"), any(LocalDateTime.class))).thenReturn(1);
+        when(parcelRepository.findParcelDtoByTrackingNumber("TRK123")).thenReturn(Optional.of(collected));
 
         // When
         ParcelDto result = parcelService.collectParcelByTrackingNumber("TRK123");
@@ -182,16 +344,49 @@ class ParcelServiceTest {
         // Then
         assertNotNull(result);
         assertEquals("TRK123", result.getTrackingNumber());
-        verify(parcelRepository).findByTrackingNumber("TRK123");
-        verify(parcelRepository).findById(1L);
-        verify(parcelRepository).save(any(Parcel.class));
+        assertTrue(result.isCollected());
+        assertEquals("John Doe", result.getGuestName());
+        verify(parcelRepository, never()).existsByTrackingNumber(any());
+        verify(parcelRepository, never()).findByTrackingNumber(any());
+        verify(parcelRepository, never()).saveAndFlush(any(Parcel.class));
+        verify(eventPublisher).publishEvent(argThat((LifecycleEventDto event) ->
+                event.getType() == LifecycleEventType.PARCEL_COLLECTED && "TRK123".equals(event.getParcel().getTrackingNumber())));
+    }
+
+    @Test
+    void collectParcelByTrackingNumber_AlreadyCollected() {
+        // Given
+        when(parcelRepository.collectByTrackingNumber(eq("TRK123"), any(LocalDateTime.class))).thenReturn(0);
+        when(parcelRepository.existsByTrackingNumber("TRK123")).thenReturn(true);
+
+        // When & Then
+        BusinessLogicException exception = assertThrows(
+                BusinessLogicException.class,
+                () -> parcelService.collectParcelByTrackingNumber("TRK123")
+        );
+        assertEquals("Parcel is already collected", exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void collectParcelByTrackingNumber_NotFound() {
+        // Given
+        when(parcelRepository.collectByTrackingNumber(eq("UNKNOWN"), any(LocalDateTime.class))).thenReturn(0);
+        when(parcelRepository.existsByTrackingNumber("UNKNOWN")).thenReturn(false);
+
+        // When & Then
+        ResourceNotFoundException exception = assertThrows(
+                ResourceNotFoundException.class,
+                () -> parcelService.collectParcelByTrackingNumber("UNKNOWN")
+        );
+        assertEquals("Parcel not found with tracking number: UNKNOWN", exception.getMessage());
     }
 
     @Test
     void getAvailableParcelsForGuest_Success() {
         // Given
-        List<Parcel> uncollectedParcels = Arrays.asList(testParcel);
-        when(parcelRepository.findUncollectedParcelsByGuestId(1L)).thenReturn(uncollectedParcels);
+        List<ParcelDto> uncollectedParcels = Arrays.asList(testParcelView);
+        when(parcelRepository.findUncollectedParcelDtosByGuestId(1L)).thenReturn(uncollectedParcels);
 
         // When
         List<ParcelDto> result = parcelService.getAvailableParcelsForGuest(1L);
@@ -200,29 +395,50 @@ class ParcelServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("TRK123", result.get(0).getTrackingNumber());
-        verify(parcelRepository).findUncollectedParcelsByGuestId(1L);
+        verify(parcelRepository).findUncollectedParcelDtosByGuestId(1L);
     }
 
     @Test
-    void getAllUncollectedParcels_Success() {
+    void getUncollectedParcels_Success() {
         // Given
-        List<Parcel> uncollectedParcels = Arrays.asList(testParcel);
-        when(parcelRepository.findAllUncollectedParcels()).thenReturn(uncollectedParcels);
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        when(parcelRepository.findUncollectedParcelDtosAfter(0L, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(testParcelView), pageRequest, false));
 
         // When
-        List<ParcelDto> result = parcelService.getAllUncollectedParcels();
+        CursorPageDto<ParcelDto> result = parcelService.getUncollectedParcels(null, 10);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("TRK123", result.get(0).getTrackingNumber());
-        verify(parcelRepository).findAllUncollectedParcels();
+        assertEquals(1, result.getItems().size());
+        assertEquals("TRK123", result.getItems().get(0).getTrackingNumber());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        verify(parcelRepository).findUncollectedParcelDtosAfter(0L, pageRequest);
+        verify(parcelRepository, never()).findAllUncollectedParcels();
+    }
+
+    @Test
+    void getParcels_HasNextPage() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        when(parcelRepository.findParcelDtosAfter(0L, pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(testParcelView), pageRequest, true));
+
+        // When
+        CursorPageDto<ParcelDto> result = parcelService.getParcels(null, 1);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertTrue(result.isHasNext());
+        assertEquals(1L, result.getNextCursor());
+        verify(parcelRepository, never()).findAll();
     }
 
     @Test
     void getParcelByTrackingNumber_Success() {
         // Given
-        when(parcelRepository.findByTrackingNumber("TRK123")).thenReturn(Optional.of(testParcel));
+        when(parcelRepository.findParcelDtoByTrackingNumber("TRK123")).thenReturn(Optional.of(testParcelView));
 
         // When
         ParcelDto result = parcelService.getParcelByTrackingNumber("TRK123");
@@ -231,13 +447,13 @@ class ParcelServiceTest {
         assertNotNull(result);
         assertEquals("TRK123", result.getTrackingNumber());
         assertEquals("Amazon", result.getSender());
-        verify(parcelRepository).findByTrackingNumber("TRK123");
+        verify(parcelRepository).findParcelDtoByTrackingNumber("TRK123");
     }
 
     @Test
     void getParcelByTrackingNumber_NotFound() {
         // Given
-        when(parcelRepository.findByTrackingNumber("TRK123")).thenReturn(Optional.empty());
+        when(parcelRepository.findParcelDtoByTrackingNumber("TRK123")).thenReturn(Optional.empty());
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(
@@ -245,6 +461,32 @@ class ParcelServiceTest {
                 () -> parcelService.getParcelByTrackingNumber("TRK123")
         );
         assertEquals("Parcel not found with tracking number: TRK123", exception.getMessage());
-        verify(parcelRepository).findByTrackingNumber("TRK123");
+        verify(parcelRepository).findParcelDtoByTrackingNumber("TRK123");
+    }
+
+    @Test
+    void getParcelsByGuestIds_GroupsByGuest() {
+        // Given
+        ParcelDto otherParcel = new ParcelDto(2L, "TRK456", "DHL", "Letter", LocalDateTime.now(), null, false,
+                2L, "Jane Smith", "102");
+        when(parcelRepository.findParcelDtosByGuestIds(List.of(1L, 2L)))
+                .thenReturn(List.of(testParcelView, otherParcel));
+
+        // When
+        Map<Long, List<ParcelDto>> result = parcelService.getParcelsByGuestIds(List.of(1L, 2L));
+
+        // Then
+        assertEquals(List.of(testParcelView), result.get(1L));
+        assertEquals(List.of(otherParcel), result.get(2L));
+    }
+
+    @Test
+    void getParcelsByGuestIds_NoGuests() {
+        // When
+        Map<Long, List<ParcelDto>> result = parcelService.getParcelsByGuestIds(List.of());
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(parcelRepository, never()).findParcelDtosByGuestIds(any());
     }
-} 
\ No newline at end of file
+}
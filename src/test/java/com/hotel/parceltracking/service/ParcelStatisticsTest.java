@@ -0,0 +1,182 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.HourlyArrivalsDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.dto.ParcelStatisticsDto;
+import com.hotel.parceltracking.repository.ParcelHistoryRepository;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ParcelStatistics.
+ */
+@ExtendWith(MockitoExtension.class)
+class ParcelStatisticsTest {
+
+    @Mock
+    private ParcelRepository parcelRepository;
+
+    @Mock
+    private ParcelHistoryRepository parcelHistoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ParcelStatistics parcelStatistics;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        when(parcelRepository.countUncollectedParcelsByRoom()).thenReturn(List.of(roomCount("101", 2), roomCount("102", 1)));
+        when(parcelRepository.streamParcelTimes(any(LocalDateTime.class))).thenReturn(Stream.of(
+                times(now.minusHours(2), now.minusHours(1)),
+                times(now, null)));
+        when(parcelHistoryRepository.streamParcelTimes()).thenReturn(Stream.of(
+                times(now.minusDays(3), now.minusDays(3).plusSeconds(60))));
+        parcelStatistics.rebuild();
+    }
+
+    @Test
+    void rebuild_LoadsActiveAndArchivedParcels() {
+        // When
+        ParcelStatisticsDto statistics = parcelStatistics.snapshot();
+
+        // Then
+        assertEquals(3, statistics.getTotalUncollected());
+        assertEquals(Map.of("101", 2L, "102", 1L), statistics.getUncollectedByRoom());
+        assertEquals(2, statistics.getCollectedCount());
+        assertEquals((3600 + 60) / 2.0, statistics.getAverageDwellSeconds());
+        assertEquals(ParcelStatistics.ARRIVAL_HOURS, statistics.getArrivalsPerHour().size());
+        // The archived parcel arrived before the window
+        assertEquals(2, totalArrivals(statistics));
+        assertEquals(1, statistics.getArrivalsPerHour().get(ParcelStatistics.ARRIVAL_HOURS - 1).getArrivals());
+    }
+
+    @Test
+    void onLifecycleEvent_CountsAcceptedAndCollectedParcels() {
+        // When
+        parcelStatistics.onLifecycleEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_ACCEPTED, parcel("103", now, null)));
+
+        // Then
+        ParcelStatisticsDto statistics = parcelStatistics.snapshot();
+        assertEquals(4, statistics.getTotalUncollected());
+        assertEquals(1L, statistics.getUncollectedByRoom().get("103"));
+        assertEquals(3, totalArrivals(statistics));
+
+        // When
+        parcelStatistics.onLifecycleEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_COLLECTED,
+                parcel("103", now, now.plusSeconds(600))));
+
+        // Then
+        statistics = parcelStatistics.snapshot();
+        assertEquals(3, statistics.getTotalUncollected());
+        assertFalse(statistics.getUncollectedByRoom().containsKey("103"));
+        assertEquals(3, statistics.getCollectedCount());
+        assertEquals((3600 + 60 + 600) / 3.0, statistics.getAverageDwellSeconds());
+    }
+
+    @Test
+    void onLifecycleEvent_IgnoresGuestEvents() {
+        // When
+        parcelStatistics.onLifecycleEvent(LifecycleEventDto.ofGuest(LifecycleEventType.GUEST_CHECKED_IN,
+                new GuestDto("Guest", "104")));
+
+        // Then
+        assertEquals(3, parcelStatistics.totalUncollected());
+        assertEquals(2, parcelStatistics.snapshot().getCollectedCount());
+    }
+
+    @Test
+    void recordCollected_UnknownRoom_KeepsUncollectedCount() {
+        // When
+        parcelStatistics.recordCollected(parcel("999", now.minusMinutes(5), now));
+
+        // Then
+        ParcelStatisticsDto statistics = parcelStatistics.snapshot();
+        assertEquals(3, statistics.getTotalUncollected());
+        assertEquals(3, statistics.getCollectedCount());
+    }
+
+    @Test
+    void p95DwellSeconds_WithinHistogramResolution() {
+        // Given - 100 more parcels collected after 1 to 100 minutes
+        for (int minutes = 1; minutes <= 100; minutes++) {
+            parcelStatistics.recordAccepted(parcel("105", now.minusMinutes(minutes), null));
+            parcelStatistics.recordCollected(parcel("105", now.minusMinutes(minutes), now));
+        }
+
+        // When
+        ParcelStatisticsDto statistics = parcelStatistics.snapshot();
+
+        // Then - the exact p95 of all 102 dwell times is the 97th smallest: 95 minutes
+        assertEquals(102, statistics.getCollectedCount());
+        assertEquals(95 * 60, statistics.getP95DwellSeconds(), 95 * 60 * 0.05);
+    }
+
+    @Test
+    void dwellBucket_RepresentativeWithinFivePercent() {
+        assertEquals(0, ParcelStatistics.dwellBucket(0));
+        for (long seconds = 1; seconds < 10_000_000; seconds = seconds * 3 + 1) {
+            double representative = ParcelStatistics.dwellBucketSeconds(ParcelStatistics.dwellBucket(seconds));
+            assertEquals(seconds, representative, seconds * 0.05);
+        }
+    }
+
+    private static long totalArrivals(ParcelStatisticsDto statistics) {
+        return statistics.getArrivalsPerHour().stream().mapToLong(HourlyArrivalsDto::getArrivals).sum();
+    }
+
+    private static ParcelDto parcel(String roomNumber, LocalDateTime arrivalTime, LocalDateTime collectionTime) {
+        return new ParcelDto(1L, "TRK-" + roomNumber, "Courier", "Box", arrivalTime, collectionTime,
+                collectionTime != null, 1L, "Guest", roomNumber);
+    }
+
+    private static ParcelRepository.RoomParcelCount roomCount(String roomNumber, long parcelCount) {
+        return new ParcelRepository.RoomParcelCount() {
+            @Override
+            public String getRoomNumber() {
+                return roomNumber;
+            }
+
+            @Override
+            public long getParcelCount() {
+                return parcelCount;
+            }
+        };
+    }
+
+    private static ParcelRepository.ParcelTimes times(LocalDateTime arrivalTime, LocalDateTime collectionTime) {
+        return new ParcelRepository.ParcelTimes() {
+            @Override
+            public LocalDateTime getArrivalTime() {
+                return arrivalTime;
+            }
+
+            @Override
+            public LocalDateTime getCollectionTime() {
+                return collectionTime;
+            }
+        };
+    }
+}
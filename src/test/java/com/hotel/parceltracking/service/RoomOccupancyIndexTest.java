@@ -0,0 +1,80 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.repository.GuestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RoomOccupancyIndex.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomOccupancyIndexTest {
+
+    @Mock
+    private GuestRepository guestRepository;
+
+    @InjectMocks
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(guestRepository.findRoomOccupants()).thenReturn(List.of(occupant("101", 1L), occupant("102", 2L)));
+        roomOccupancyIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_LoadsCheckedInGuests() {
+        assertTrue(roomOccupancyIndex.isOccupied("101"));
+        assertEquals(Optional.of(2L), roomOccupancyIndex.findGuestId("102"));
+        assertFalse(roomOccupancyIndex.isOccupied("103"));
+        assertEquals(2, roomOccupancyIndex.occupiedRoomCount());
+    }
+
+    @Test
+    void occupyAndVacate_OutsideTransaction_AppliedImmediately() {
+        // When
+        roomOccupancyIndex.occupy("103", 3L);
+
+        // Then
+        assertEquals(Optional.of(3L), roomOccupancyIndex.findGuestId("103"));
+
+        // When
+        roomOccupancyIndex.vacate("103", 3L);
+
+        // Then
+        assertFalse(roomOccupancyIndex.isOccupied("103"));
+    }
+
+    @Test
+    void vacate_IgnoresStaleGuest() {
+        // When - a previous occupant of room 101 is checked out
+        roomOccupancyIndex.vacate("101", 99L);
+
+        // Then
+        assertEquals(Optional.of(1L), roomOccupancyIndex.findGuestId("101"));
+    }
+
+    private static GuestRepository.RoomOccupant occupant(String roomNumber, Long id) {
+        return new GuestRepository.RoomOccupant() {
+            @Override
+            public String getRoomNumber() {
+                return roomNumber;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.config.MetricsConfig;
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the service operation metrics and business gauges.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:service-metrics-test;DB_CLOSE_DELAY=-1")
+class ServiceMetricsTest {
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceOperations_AreTimedAndCounted() {
+        // When
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Metrics Guest", "M1"));
+        parcelService.acceptParcel(new ParcelDto("METRICS-1", "Courier", "Box", guest.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> parcelService.getParcelByTrackingNumber("METRICS-404"));
+
+        // Then
+        Timer checkInTimer = meterRegistry.get(MetricsConfig.SERVICE_TIMER)
+                .tag("class", GuestService.class.getName())
+                .tag("method", "checkInGuest")
+                .timer();
+        assertEquals(1, checkInTimer.count());
+        assertEquals(1, meterRegistry.get(MetricsConfig.SERVICE_TIMER)
+                .tag("method", "acceptParcel")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(MetricsConfig.SERVICE_COUNTER)
+                .tag("method", "getParcelByTrackingNumber")
+                .tag("result", "failure")
+                .counter().count());
+    }
+
+    @Test
+    void businessGauges_ReflectCurrentState() {
+        // Given
+        double checkedInBefore = meterRegistry.get("parcel.tracking.guests.checked.in").gauge().value();
+        double uncollectedBefore = meterRegistry.get("parcel.tracking.parcels.uncollected").gauge().value();
+
+        // When
+        GuestDto guest = guestService.checkInGuest(new GuestDto("Gauge Guest", "M2"));
+        parcelService.acceptParcel(new ParcelDto("GAUGE-1", "Courier", "Box", guest.getId()));
+        parcelService.acceptParcel(new ParcelDto("GAUGE-2", "Courier", "Box", guest.getId()));
+
+        // Then
+        assertEquals(checkedInBefore + 1, meterRegistry.get("parcel.tracking.guests.checked.in").gauge().value());
+        assertEquals(uncollectedBefore + 2, meterRegistry.get("parcel.tracking.parcels.uncollected").gauge().value());
+    }
+
+    @Test
+    void hibernateStatistics_ArePublished() {
+        assertNotNull(meterRegistry.find("hibernate.statements").functionCounter());
+    }
+}
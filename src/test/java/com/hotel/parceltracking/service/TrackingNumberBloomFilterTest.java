@@ -0,0 +1,138 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.GuestDto;
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TrackingNumberBloomFilter.
+ */
+@ExtendWith(MockitoExtension.class)
+class TrackingNumberBloomFilterTest {
+
+    private static final int INSERTIONS = 10_000;
+
+    @Mock
+    private ParcelRepository parcelRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TrackingNumberBloomFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new TrackingNumberBloomFilter(parcelRepository, transactionManager, meterRegistry, INSERTIONS, 0.01);
+    }
+
+    @Test
+    void put_NoFalseNegatives() {
+        // Given
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("TRK" + i);
+        }
+
+        // Then
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain("TRK" + i));
+        }
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateNearConfiguredProbability() {
+        // Given
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("TRK" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < INSERTIONS; i++) {
+            if (filter.mightContain("OTHER" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives < INSERTIONS * 0.03, "False positives: " + falsePositives);
+        assertTrue(filter.fillRatio() > 0.3 && filter.fillRatio() < 0.7);
+        assertTrue(filter.estimatedFalsePositiveProbability() < 0.03);
+    }
+
+    @Test
+    void rebuild_LoadsTrackingNumbersFromDatabase() {
+        // Given
+        when(parcelRepository.count()).thenReturn(2L);
+        when(parcelRepository.streamAllTrackingNumbers()).thenReturn(Stream.of("TRK1", "TRK2"));
+
+        // When
+        filter.rebuild();
+
+        // Then
+        assertTrue(filter.mightContain("TRK1"));
+        assertTrue(filter.mightContain("TRK2"));
+        assertEquals(2L, filter.statistics().get("insertions"));
+        verify(parcelRepository).streamAllTrackingNumbers();
+    }
+
+    @Test
+    void rebuild_KeepsTrackingNumbersAddedWhileLoading() {
+        // Given - a parcel accepted while the rebuild streams the table
+        when(parcelRepository.count()).thenReturn(1L);
+        when(parcelRepository.streamAllTrackingNumbers())
+                .thenReturn(Stream.of("TRK1").peek(trackingNumber -> filter.put("CONCURRENT")));
+
+        // When
+        filter.rebuild();
+
+        // Then
+        assertTrue(filter.mightContain("TRK1"));
+        assertTrue(filter.mightContain("CONCURRENT"));
+    }
+
+    @Test
+    void onLifecycleEvent_AddsAcceptedTrackingNumbers() {
+        // When
+        filter.onLifecycleEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_ACCEPTED,
+                new ParcelDto("TRK1", "Amazon", "Package", 1L)));
+        filter.onLifecycleEvent(LifecycleEventDto.ofGuest(LifecycleEventType.GUEST_CHECKED_IN,
+                new GuestDto("Guest", "101")));
+
+        // Then
+        assertTrue(filter.mightContain("TRK1"));
+        assertEquals(1L, filter.statistics().get("insertions"));
+    }
+
+    @Test
+    void statistics_ReportChecksAndFalsePositives() {
+        // Given
+        filter.put("TRK1");
+        filter.mightContain("TRK1");
+        filter.mightContain("TRK2");
+        filter.recordFalsePositive();
+
+        // Then
+        double checks = meterRegistry.get("parcel.tracking.filter.checks").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+        assertEquals(2.0, checks);
+        assertEquals(1L, filter.statistics().get("falsePositives"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.hotel.parceltracking.service;
+
+import com.hotel.parceltracking.dto.LifecycleEventDto;
+import com.hotel.parceltracking.dto.LifecycleEventType;
+import com.hotel.parceltracking.dto.ParcelDto;
+import com.hotel.parceltracking.repository.ParcelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TrackingNumberPrefixIndex.
+ */
+@ExtendWith(MockitoExtension.class)
+class TrackingNumberPrefixIndexTest {
+
+    @Mock
+    private ParcelRepository parcelRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private TrackingNumberPrefixIndex trackingNumberPrefixIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(parcelRepository.streamUncollectedTrackingNumbers())
+                .thenReturn(Stream.of("TRK300", "TRK123", "TRK12", "UPS999", "TRK129", "trk125", "TR1"));
+        trackingNumberPrefixIndex.rebuild();
+    }
+
+    @Test
+    void suggest_ReturnsMatchesInOrderIgnoringCase() {
+        // When & Then
+        assertEquals(List.of("TRK12", "TRK123", "trk125", "TRK129"), trackingNumberPrefixIndex.suggest("trk12", 10));
+        assertEquals(List.of("TR1", "TRK12", "TRK123"), trackingNumberPrefixIndex.suggest(" TR ", 3));
+        assertEquals(List.of("UPS999"), trackingNumberPrefixIndex.suggest("u", 10));
+    }
+
+    @Test
+    void suggest_NoMatchOrBlankPrefix_ReturnsEmpty() {
+        // When & Then
+        assertEquals(List.of(), trackingNumberPrefixIndex.suggest("TRK4", 10));
+        assertEquals(List.of(), trackingNumberPrefixIndex.suggest("ZZ", 10));
+        assertEquals(List.of(), trackingNumberPrefixIndex.suggest("", 10));
+        assertEquals(List.of(), trackingNumberPrefixIndex.suggest("TRK", 0));
+    }
+
+    @Test
+    void onLifecycleEvent_IndexesAcceptedAndDropsCollectedParcels() {
+        // When
+        trackingNumberPrefixIndex.onLifecycleEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_ACCEPTED, parcel("TRK124")));
+        trackingNumberPrefixIndex.onLifecycleEvent(LifecycleEventDto.ofParcel(LifecycleEventType.PARCEL_COLLECTED, parcel("TRK123")));
+
+        // Then
+        assertEquals(List.of("TRK12", "TRK124", "trk125", "TRK129"), trackingNumberPrefixIndex.suggest("TRK12", 10));
+        assertEquals(7, trackingNumberPrefixIndex.size());
+    }
+
+    private static ParcelDto parcel(String trackingNumber) {
+        return new ParcelDto(trackingNumber, "Amazon", "Package", 1L);
+    }
+}